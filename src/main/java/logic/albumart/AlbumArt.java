@@ -0,0 +1,84 @@
+package logic.albumart;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+
+/**
+ * An immutable handle to a decoded album cover, which is shared by every
+ * <i>Song</i>, <i>SongSnapshot</i> and component that shows it instead of each of them
+ * copying the image. The wrapped image must never be drawn onto or modified once it is
+ * wrapped; use {@code getCopy()} for an image that can be.
+ */
+public final class AlbumArt {
+
+	/** The album cover, which is never modified. */
+	private final BufferedImage image;
+
+	private AlbumArt(BufferedImage image) {
+		this.image = image;
+	}
+
+	/**
+	 * Wraps <b>image</b> in a shared handle. The caller must not modify <b>image</b>
+	 * afterwards.
+	 *
+	 * @param image The decoded album cover (can be null).
+	 * @return The <i>AlbumArt</i> of <b>image</b>, or null if <b>image</b> is null.
+	 */
+	public static AlbumArt of(BufferedImage image) {
+		return (image != null) ? new AlbumArt(image) : null;
+	}
+
+	/**
+	 * Returns the shared album cover, which can be drawn but must not be modified.
+	 *
+	 * @return The album cover.
+	 */
+	public BufferedImage getImage() {
+		return image;
+	}
+
+	/**
+	 * Returns a copy of the album cover that can be modified.
+	 *
+	 * @return A new <i>BufferedImage</i> of the album cover.
+	 */
+	public BufferedImage getCopy() {
+		BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(),
+				BufferedImage.TYPE_INT_RGB);
+
+		Graphics g = copy.getGraphics();
+		g.drawImage(image, 0, 0, null);
+		g.dispose();
+
+		return copy;
+	}
+
+	public int getWidth() {
+		return image.getWidth();
+	}
+
+	public int getHeight() {
+		return image.getHeight();
+	}
+
+	/**
+	 * Returns the bytes the pixels of the album cover take up in memory.
+	 *
+	 * @return The size of the album cover's pixels in bytes.
+	 */
+	public long getByteSize() {
+		int bytesPerPixel = (image.getColorModel().getPixelSize() + 7) / 8;
+		return (long) image.getWidth() * image.getHeight() * bytesPerPixel;
+	}
+
+	/**
+	 * Returns true if the album cover is <b>size</b> pixels wide and high.
+	 *
+	 * @param size The width and height in pixels.
+	 * @return If the album cover is already that size.
+	 */
+	public boolean isSize(int size) {
+		return image.getWidth() == size && image.getHeight() == size;
+	}
+}
@@ -0,0 +1,171 @@
+package logic.albumart;
+
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An in-memory cache of album covers that have already been downloaded and scaled,
+ * so that skipping back to a track or searching a song again doesn't download and
+ * scale its cover again. The cache is bounded by the bytes of the covers' pixels
+ * rather than by the number of covers, and evicts the least recently used covers
+ * first. Evicted covers are kept softly reachable, so they can still be returned
+ * until the garbage collector needs the memory.
+ *
+ * <p>Keys are made with {@code key(String, int)} from the URL of the cover and the
+ * size it was scaled to.
+ */
+public class AlbumArtCache {
+
+	/** The most bytes of pixels the strongly held covers can take up. */
+	private final long maxBytes;
+
+	/** The bytes of pixels the strongly held covers take up. */
+	private long bytes;
+
+	/** The strongly held covers in order of last access. */
+	private final LinkedHashMap<String, AlbumArt> covers =
+			new LinkedHashMap<>(16, 0.75f, true);
+
+	/** The covers evicted from <b>covers</b>, which the garbage collector can clear. */
+	private final Map<String, SoftReference<AlbumArt>> evicted = new HashMap<>();
+
+	private long hits;
+	private long softHits;
+	private long misses;
+	private long evictions;
+
+	/**
+	 * Creates a cache that strongly holds at most <b>maxBytes</b> bytes of pixels.
+	 *
+	 * @param maxBytes The most bytes of covers to hold.
+	 */
+	public AlbumArtCache(long maxBytes) {
+		if (maxBytes <= 0) {
+			throw new IllegalArgumentException("\"maxBytes\" must be positive.");
+		}
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Returns the key of the cover at <b>url</b> scaled to <b>size</b> pixels.
+	 *
+	 * @param url The URL the cover was downloaded from.
+	 * @param size The width and height it was scaled to, or 0 if it wasn't scaled.
+	 * @return The key to get and put the cover with.
+	 */
+	public static String key(String url, int size) {
+		return size + "@" + url;
+	}
+
+	/**
+	 * Returns the cover of <b>key</b>, or null if it isn't cached.
+	 *
+	 * @param key The key of the cover.
+	 * @return The cached <i>AlbumArt</i> or null.
+	 */
+	public synchronized AlbumArt get(String key) {
+		AlbumArt art = covers.get(key);
+		if (art != null) {
+			hits++;
+			return art;
+		}
+
+		SoftReference<AlbumArt> ref = evicted.remove(key);
+		art = (ref != null) ? ref.get() : null;
+		if (art != null) {
+			softHits++;
+			put(key, art);
+			return art;
+		}
+
+		misses++;
+		return null;
+	}
+
+	/**
+	 * Caches the cover <b>art</b> under <b>key</b>, evicting the least recently used
+	 * covers until the cache is back within its bound. A cover larger than the whole
+	 * bound is only held softly.
+	 *
+	 * @param key The key of the cover.
+	 * @param art The cover to cache.
+	 */
+	public synchronized void put(String key, AlbumArt art) {
+		if (key == null) {
+			throw new NullPointerException("String \"key\" is null.");
+		} else if (art == null) {
+			throw new NullPointerException("AlbumArt \"art\" is null.");
+		}
+
+		AlbumArt previous = covers.put(key, art);
+		if (previous != null) {
+			bytes -= previous.getByteSize();
+		}
+		bytes += art.getByteSize();
+		evicted.remove(key);
+
+		Iterator<Map.Entry<String, AlbumArt>> eldest = covers.entrySet().iterator();
+		while (bytes > maxBytes && eldest.hasNext()) {
+			Map.Entry<String, AlbumArt> entry = eldest.next();
+			eldest.remove();
+
+			bytes -= entry.getValue().getByteSize();
+			evicted.put(entry.getKey(), new SoftReference<>(entry.getValue()));
+			evictions++;
+		}
+
+		// drops the references the garbage collector already cleared
+		evicted.values().removeIf(ref -> ref.get() == null);
+	}
+
+	/** Removes every cover from the cache. */
+	public synchronized void clear() {
+		covers.clear();
+		evicted.clear();
+		bytes = 0;
+	}
+
+	/** Returns the bytes of pixels the strongly held covers take up. */
+	public synchronized long getBytes() {
+		return bytes;
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/** Returns the number of strongly held covers. */
+	public synchronized int size() {
+		return covers.size();
+	}
+
+	/** Returns the number of gets answered by a strongly held cover. */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/** Returns the number of gets answered by an evicted cover not yet collected. */
+	public synchronized long getSoftHits() {
+		return softHits;
+	}
+
+	/** Returns the number of gets that found no cover. */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/** Returns the number of covers evicted to stay within the bound. */
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "AlbumArtCache[" + covers.size() + " covers, " + bytes + "/" + maxBytes
+				+ " bytes, hits=" + hits + ", softHits=" + softHits + ", misses="
+				+ misses + ", evictions=" + evictions + "]";
+	}
+}
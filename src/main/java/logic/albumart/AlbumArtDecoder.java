@@ -0,0 +1,119 @@
+package logic.albumart;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Decodes album cover image files close to the size they are shown at. Rather than
+ * decoding every pixel of a 640 pixel cover and then scaling it down, the decoder
+ * skips rows and columns while reading (source subsampling) so that the image is
+ * decoded at the smallest whole fraction of its size that is still at least the
+ * target size, which the final scaling then only has to shrink slightly.
+ *
+ * <p>Decoding is done on a small pool of daemon worker threads, so that neither the
+ * playback poller nor the Event Dispatch Thread waits on it.
+ */
+public class AlbumArtDecoder {
+
+	/** The number of threads decoding covers. */
+	private static final int DECODE_THREADS = 2;
+
+	/** The worker threads covers are decoded on. */
+	private final ThreadPoolExecutor executor;
+
+	public AlbumArtDecoder() {
+		AtomicInteger count = new AtomicInteger();
+		executor = new ThreadPoolExecutor(DECODE_THREADS, DECODE_THREADS, 30,
+				TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+					Thread t = new Thread(r, "album-art-decode-" + count.incrementAndGet());
+					t.setDaemon(true);
+					t.setPriority(Thread.NORM_PRIORITY - 1);
+					return t;
+				});
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Returns the worker threads covers are decoded on, so that the steps following a
+	 * decode (such as scaling) can be run on them too.
+	 *
+	 * @return The executor of the decoder's worker threads.
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Decodes <b>imageBytes</b>, skipping as many rows and columns as can be skipped
+	 * while keeping the image at least <b>targetSize</b> pixels wide and high.
+	 *
+	 * @param imageBytes The bytes of the image file.
+	 * @param targetSize The width and height the cover is shown at, or 0 to decode
+	 * every pixel.
+	 * @return The decoded image, or null if the bytes couldn't be decoded.
+	 */
+	public static BufferedImage decode(byte[] imageBytes, int targetSize) {
+		if (imageBytes == null || imageBytes.length == 0) {
+			return null;
+		}
+
+		try (ImageInputStream input = ImageIO.createImageInputStream(
+				new ByteArrayInputStream(imageBytes))) {
+
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+			if (!readers.hasNext()) {
+				return null;
+			}
+
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(input, true, true);
+
+				ImageReadParam param = reader.getDefaultReadParam();
+				int subsampling = subsamplingFor(reader.getWidth(0), reader.getHeight(0),
+						targetSize);
+				if (subsampling > 1) {
+					param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+				}
+
+				return reader.read(0, param);
+			} finally {
+				reader.dispose();
+			}
+
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the largest factor the image can be subsampled by while staying at least
+	 * <b>targetSize</b> pixels wide and high.
+	 */
+	private static int subsamplingFor(int width, int height, int targetSize) {
+		if (targetSize <= 0) {
+			return 1;
+		}
+		return Math.max(1, Math.min(width, height) / targetSize);
+	}
+
+	/**
+	 * Stops the worker threads once the covers already submitted are decoded.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+}
@@ -0,0 +1,304 @@
+package logic.albumart;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import logic.appdirectories.AppDirectories;
+
+/**
+ * A cache of downloaded album cover bytes on disk, so that covers don't have to be
+ * downloaded again each time the app is launched. Album cover URLs on Spotify's image
+ * servers never change what they point to, so a file never goes stale; each is named
+ * by the SHA-256 hash of its URL. Files are written to a temporary file first and then
+ * moved into place, so a cover is never read half written. Once the files take up
+ * more than the cache's size cap, the least recently accessed files are deleted.
+ *
+ * <p>Reading and writing fail silently (the cover is just downloaded), as a cache that
+ * can't be used shouldn't stop the cover from being shown.
+ *
+ * @see AppDirectories
+ */
+public class AlbumArtDiskCache {
+
+	/** The size cap of the default cache in bytes. */
+	private static final long DEFAULT_MAX_BYTES = 50L * 1024 * 1024;
+
+	/** The extension of the cached files. */
+	private static final String EXTENSION = ".img";
+
+	/** The directory the files are kept in. */
+	private final Path directory;
+
+	/** The most bytes the files can take up. */
+	private final long maxBytes;
+
+	/** The bytes the files take up, or -1 before the directory is first scanned. */
+	private long bytes = -1;
+
+	private long hits;
+	private long misses;
+
+	/**
+	 * Creates a cache of at most <b>maxBytes</b> bytes in <b>directory</b>, which
+	 * must exist.
+	 *
+	 * @param directory The directory to keep the files in.
+	 * @param maxBytes The most bytes the files can take up.
+	 */
+	public AlbumArtDiskCache(Path directory, long maxBytes) {
+		if (directory == null) {
+			throw new NullPointerException("Path \"directory\" is null.");
+		} else if (maxBytes <= 0) {
+			throw new IllegalArgumentException("\"maxBytes\" must be positive.");
+		}
+
+		this.directory = directory;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Returns the cache shared by all <i>SpotifyAPI</i> instances, in the
+	 * <i>covers</i> subdirectory of the app's cache directory, or null if the directory
+	 * couldn't be created.
+	 *
+	 * @return The shared <i>AlbumArtDiskCache</i> or null.
+	 */
+	public static AlbumArtDiskCache getDefault() {
+		return DefaultHolder.INSTANCE;
+	}
+
+	/** Lazily creates the shared cache. */
+	private static class DefaultHolder {
+		private static final AlbumArtDiskCache INSTANCE = createDefault();
+
+		private static AlbumArtDiskCache createDefault() {
+			try {
+				return new AlbumArtDiskCache(AppDirectories.createCacheDirectory("covers"),
+						DEFAULT_MAX_BYTES);
+			} catch (IOException | SecurityException e) {
+				System.out.println("Album covers won't be cached on disk: " + e);
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Returns the cached bytes of the album cover at <b>url</b>, marking it as recently
+	 * accessed, or null if it isn't cached.
+	 *
+	 * @param url The URL the cover was downloaded from.
+	 * @return The bytes of the cover's image file or null.
+	 */
+	public byte[] get(String url) {
+		Path file = fileOf(url);
+
+		try {
+			byte[] imageBytes = Files.readAllBytes(file);
+			Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+
+			synchronized (this) {
+				hits++;
+			}
+			return imageBytes;
+
+		} catch (NoSuchFileException e) {
+			// not cached
+		} catch (IOException e) {
+			System.out.println("Could not read cached album cover: " + e);
+		}
+
+		synchronized (this) {
+			misses++;
+		}
+		return null;
+	}
+
+	/**
+	 * Returns if the album cover at <b>url</b> is cached, without reading it or marking
+	 * it as accessed.
+	 *
+	 * @param url The URL the cover was downloaded from.
+	 * @return <i>true</i> if its file exists.
+	 */
+	public boolean contains(String url) {
+		return Files.exists(fileOf(url));
+	}
+
+	/**
+	 * Caches the <b>imageBytes</b> of the album cover at <b>url</b>, then deletes the
+	 * least recently accessed files if the cache is over its size cap.
+	 *
+	 * @param url The URL the cover was downloaded from.
+	 * @param imageBytes The bytes of the cover's image file.
+	 */
+	public void put(String url, byte[] imageBytes) {
+		if (imageBytes == null || imageBytes.length == 0) {
+			return;
+		}
+
+		Path file = fileOf(url);
+		Path temp = null;
+
+		try {
+			temp = Files.createTempFile(directory, "cover", ".tmp");
+			Files.write(temp, imageBytes);
+
+			try {
+				Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE,
+						StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+
+		} catch (IOException e) {
+			System.out.println("Could not cache album cover: " + e);
+			deleteQuietly(temp);
+			return;
+		}
+
+		synchronized (this) {
+			if (bytes < 0) {
+				bytes = scanBytes();
+			} else {
+				bytes += imageBytes.length;
+			}
+
+			if (bytes > maxBytes) {
+				trim();
+			}
+		}
+	}
+
+	/**
+	 * Deletes the least recently accessed files until the files take up no more than
+	 * three quarters of the size cap, so the cache isn't trimmed on every put.
+	 */
+	private void trim() {
+		List<Path> files = listFiles();
+		files.sort(Comparator.comparing(AlbumArtDiskCache::lastModified));
+
+		long target = maxBytes / 4 * 3;
+		long total = 0;
+		for (Path f : files) {
+			total += sizeOf(f);
+		}
+
+		for (Path f : files) {
+			if (total <= target) {
+				break;
+			}
+			long size = sizeOf(f);
+			if (deleteQuietly(f)) {
+				total -= size;
+			}
+		}
+
+		bytes = total;
+	}
+
+	/** Returns the bytes all the cached files take up. */
+	private long scanBytes() {
+		long total = 0;
+		for (Path f : listFiles()) {
+			total += sizeOf(f);
+		}
+		return total;
+	}
+
+	private List<Path> listFiles() {
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+				"*" + EXTENSION)) {
+			for (Path f : stream) {
+				files.add(f);
+			}
+		} catch (IOException e) {
+			System.out.println("Could not list cached album covers: " + e);
+		}
+		return files;
+	}
+
+	/**
+	 * Returns the file of the cover at <b>url</b>, named by the hex SHA-256 hash of
+	 * <b>url</b>.
+	 */
+	private Path fileOf(String url) {
+		if (url == null) {
+			throw new NullPointerException("String \"url\" is null.");
+		}
+
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256")
+					.digest(url.getBytes(StandardCharsets.UTF_8));
+
+			StringBuilder name = new StringBuilder(hash.length * 2 + EXTENSION.length());
+			for (byte b : hash) {
+				name.append(Character.forDigit((b >> 4) & 0xF, 16))
+						.append(Character.forDigit(b & 0xF, 16));
+			}
+
+			return directory.resolve(name.append(EXTENSION).toString());
+
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static FileTime lastModified(Path f) {
+		try {
+			return Files.getLastModifiedTime(f);
+		} catch (IOException e) {
+			return FileTime.fromMillis(0);
+		}
+	}
+
+	private static long sizeOf(Path f) {
+		try {
+			return Files.size(f);
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+
+	private static boolean deleteQuietly(Path f) {
+		if (f == null) {
+			return false;
+		}
+		try {
+			return Files.deleteIfExists(f);
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/** Returns the number of covers read from disk. */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/** Returns the number of covers that weren't on disk. */
+	public synchronized long getMisses() {
+		return misses;
+	}
+}
@@ -0,0 +1,75 @@
+package logic.albumart;
+
+import java.util.List;
+
+/**
+ * Picks which size of an album cover to download. Spotify lists each album cover in
+ * several sizes, of which the first is the largest (640 pixels), while the player
+ * only shows it at 54 pixels times the album cover scale. Downloading the smallest
+ * size that is still at least as large as it is shown saves most of the bytes and
+ * decoding time of each track change without losing quality.
+ *
+ * @see AlbumImage
+ */
+public class AlbumArtResolver {
+
+	private AlbumArtResolver() {}
+
+	/**
+	 * Returns the smallest of the <b>images</b> whose width and height are both at
+	 * least <b>targetSize</b>, or the largest if none are. Images without a known size
+	 * are only picked if no image has one.
+	 *
+	 * @param images The sizes the album cover is available in.
+	 * @param targetSize The width and height in pixels the album cover is shown at.
+	 * @return The <i>AlbumImage</i> to download, or null if <b>images</b> is empty.
+	 */
+	public static AlbumImage select(List<AlbumImage> images, int targetSize) {
+		if (images == null || images.isEmpty()) {
+			return null;
+		}
+
+		AlbumImage smallestLargeEnough = null;
+		AlbumImage largest = null;
+
+		for (AlbumImage image : images) {
+			if (!image.hasSize()) {
+				continue;
+			}
+
+			int size = Math.min(image.getWidth(), image.getHeight());
+
+			if (size >= targetSize && (smallestLargeEnough == null ||
+					size < Math.min(smallestLargeEnough.getWidth(),
+							smallestLargeEnough.getHeight()))) {
+				smallestLargeEnough = image;
+			}
+			if (largest == null || size > Math.min(largest.getWidth(),
+					largest.getHeight())) {
+				largest = image;
+			}
+		}
+
+		if (smallestLargeEnough != null) {
+			return smallestLargeEnough;
+		} else if (largest != null) {
+			return largest;
+		}
+		return images.get(0);
+	}
+
+	/**
+	 * Returns the URL of the size of the album cover to download from <b>images</b>, or
+	 * <b>fallbackURL</b> if there are none.
+	 *
+	 * @param images The sizes the album cover is available in (can be empty).
+	 * @param fallbackURL The URL to use if there are no <b>images</b>.
+	 * @param targetSize The width and height in pixels the album cover is shown at.
+	 * @return The URL to download the album cover from.
+	 */
+	public static String resolveURL(List<AlbumImage> images, String fallbackURL,
+			int targetSize) {
+		AlbumImage image = select(images, targetSize);
+		return (image != null) ? image.getUrl() : fallbackURL;
+	}
+}
@@ -0,0 +1,79 @@
+package logic.albumart;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One of the sizes an album cover is available in from Spotify, as listed in the
+ * "images" array of an album object (usually 640, 300 and 64 pixels wide).
+ *
+ * @see AlbumArtResolver
+ */
+public final class AlbumImage {
+
+	private final String url;
+
+	/** The width in pixels, or 0 if unknown. */
+	private final int width;
+
+	/** The height in pixels, or 0 if unknown. */
+	private final int height;
+
+	public AlbumImage(String url, int width, int height) {
+		if (url == null) {
+			throw new NullPointerException("String \"url\" is null.");
+		}
+
+		this.url = url;
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * Reads the image objects of an album's "images" array.
+	 *
+	 * @param images The list of image objects, each with a "url", "width" and "height".
+	 * @return An unmodifiable list of the <i>AlbumImage</i>s with a URL, in order.
+	 */
+	public static List<AlbumImage> listFromJSON(List<?> images) {
+		if (images == null || images.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		List<AlbumImage> list = new ArrayList<>(images.size());
+		for (Object image : images) {
+			Map<?, ?> imageMap = (Map<?, ?>) image;
+			Object url = imageMap.get("url");
+
+			if (url != null) {
+				list.add(new AlbumImage(url.toString(), toInt(imageMap.get("width")),
+						toInt(imageMap.get("height"))));
+			}
+		}
+
+		return Collections.unmodifiableList(list);
+	}
+
+	private static int toInt(Object value) {
+		return (value instanceof Number) ? ((Number) value).intValue() : 0;
+	}
+
+	public String getUrl() {
+		return url;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/** Returns true if the width and height of this image are known. */
+	public boolean hasSize() {
+		return width > 0 && height > 0;
+	}
+}
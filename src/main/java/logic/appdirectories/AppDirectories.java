@@ -0,0 +1,107 @@
+package logic.appdirectories;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Locates the directories the app keeps its files in between launches, following the
+ * conventions of each operating system: caches under <i>%LOCALAPPDATA%</i> on Windows,
+ * <i>~/Library/Caches</i> on macOS and <i>$XDG_CACHE_HOME</i> (or <i>~/.cache</i>)
+ * otherwise, and data that isn't only a cache under <i>%APPDATA%</i>,
+ * <i>~/Library/Application Support</i> or <i>$XDG_DATA_HOME</i> (or
+ * <i>~/.local/share</i>). The system properties <b>spotifybar.cacheDir</b> and
+ * <b>spotifybar.dataDir</b> override them.
+ */
+public class AppDirectories {
+
+	/** The name of the app's directory within each base directory. */
+	private static final String APP_NAME = "SpotifyBar";
+
+	private AppDirectories() {}
+
+	/**
+	 * Returns the app's cache directory, which files can be deleted from at any time.
+	 *
+	 * @return The cache directory (which may not exist yet).
+	 */
+	public static Path getCacheDirectory() {
+		String override = System.getProperty("spotifybar.cacheDir");
+		if (override != null) {
+			return Paths.get(override);
+		}
+
+		String home = System.getProperty("user.home");
+		if (isWindows()) {
+			return baseOr(System.getenv("LOCALAPPDATA"), home, "AppData", "Local")
+					.resolve(APP_NAME).resolve("Cache");
+		} else if (isMac()) {
+			return Paths.get(home, "Library", "Caches", APP_NAME);
+		}
+		return baseOr(System.getenv("XDG_CACHE_HOME"), home, ".cache")
+				.resolve(APP_NAME.toLowerCase());
+	}
+
+	/**
+	 * Returns the app's data directory, for files that shouldn't be deleted with the
+	 * cache.
+	 *
+	 * @return The data directory (which may not exist yet).
+	 */
+	public static Path getDataDirectory() {
+		String override = System.getProperty("spotifybar.dataDir");
+		if (override != null) {
+			return Paths.get(override);
+		}
+
+		String home = System.getProperty("user.home");
+		if (isWindows()) {
+			return baseOr(System.getenv("APPDATA"), home, "AppData", "Roaming")
+					.resolve(APP_NAME);
+		} else if (isMac()) {
+			return Paths.get(home, "Library", "Application Support", APP_NAME);
+		}
+		return baseOr(System.getenv("XDG_DATA_HOME"), home, ".local", "share")
+				.resolve(APP_NAME.toLowerCase());
+	}
+
+	/**
+	 * Returns the subdirectory <b>name</b> of the cache directory, creating it if it
+	 * doesn't exist.
+	 *
+	 * @param name The name of the subdirectory.
+	 * @return The existing subdirectory.
+	 * @throws IOException If the directory couldn't be created.
+	 */
+	public static Path createCacheDirectory(String name) throws IOException {
+		return Files.createDirectories(getCacheDirectory().resolve(name));
+	}
+
+	/**
+	 * Returns the subdirectory <b>name</b> of the data directory, creating it if it
+	 * doesn't exist.
+	 *
+	 * @param name The name of the subdirectory.
+	 * @return The existing subdirectory.
+	 * @throws IOException If the directory couldn't be created.
+	 */
+	public static Path createDataDirectory(String name) throws IOException {
+		return Files.createDirectories(getDataDirectory().resolve(name));
+	}
+
+	private static Path baseOr(String base, String home, String... defaultPath) {
+		if (base != null && !base.isEmpty()) {
+			return Paths.get(base);
+		}
+		return Paths.get(home, defaultPath);
+	}
+
+	private static boolean isWindows() {
+		return System.getProperty("os.name", "").toLowerCase().startsWith("windows");
+	}
+
+	private static boolean isMac() {
+		return System.getProperty("os.name", "").toLowerCase().startsWith("mac");
+	}
+}
@@ -7,7 +7,9 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
+import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
 
 import logic.song.Song;
@@ -21,6 +23,19 @@ public class Device {
 	private String name;
 	private boolean privateSession;
 	
+	/** The setter of each field, keyed by the name of its value in a device object 
+	 * of the Spotify Web API. */
+	private static final Map<String, BiConsumer<Device, Object>> JSON_BINDERS = 
+			new LinkedHashMap<>();
+	
+	static {
+		JSON_BINDERS.put("id", (d, v) -> d.setId(String.valueOf(v)));
+		JSON_BINDERS.put("is_active", (d, v) -> d.setActive(Boolean.TRUE.equals(v)));
+		JSON_BINDERS.put("name", (d, v) -> d.setName(String.valueOf(v)));
+		JSON_BINDERS.put("is_private_session", 
+				(d, v) -> d.setPrivateSession(Boolean.TRUE.equals(v)));
+	}
+	
 	public Device() {}
 	
 	public Device(String id, boolean active, String name, boolean privateSession) {
@@ -73,13 +88,26 @@ public class Device {
 	}
 	
 	public static Device[] initializeFromJSON(String json) {
+		return initializeFromJSON(JsonPath.parse(json));
+	}
+	
+	/** 
+	 * Initializes <i>Device</i> objects from the "devices" array or the "device" 
+	 * object of a JSON that has already been parsed into <b>doc</b>.
+	 * 
+	 * @param doc The parsed JSON to read the devices from.
+	 * @return The <i>Device</i> objects in the JSON.
+	 */
+	public static Device[] initializeFromJSON(DocumentContext doc) {
 		
 		Device[] devices = new Device[0];
 		
-		String jsonPath = (json.contains("devices")) ? "$.devices" : "$.device";
+		Object root = doc.json();
+		String jsonPath = (root instanceof Map && ((Map<?, ?>) root).containsKey("devices")) ?
+				"$.devices" : "$.device";
 		
 		// Returns a JSONArray with LinkedHashMaps or a LinkedHashMap
-		Object devicesObj = JsonPath.parse(json).read(jsonPath);
+		Object devicesObj = doc.read(jsonPath);
 		
 		int devicesCount = (jsonPath.equals("$.devices")) ? 
 				((JSONArray) devicesObj).size() : 1;
@@ -91,18 +119,18 @@ public class Device {
 		
 		int i = 0;
 		do {
-			LinkedHashMap<String, Object> device = null;
+			Map<?, ?> device = null;
 			
-			if (devicesObj instanceof LinkedHashMap) {
-				device = (LinkedHashMap<String, Object>) devicesObj;
-			} else if (devicesObj instanceof JSONArray) {
-				device = (LinkedHashMap<String, Object>) ((JSONArray) devicesObj).get(i);
+			if (devicesObj instanceof JSONArray) {
+				device = (Map<?, ?>) ((JSONArray) devicesObj).get(i);
+			} else if (devicesObj instanceof Map) {
+				device = (Map<?, ?>) devicesObj;
 			}
 			
-			devices[i].set("id", device.get("id"));
-			devices[i].set("active", device.get("is_active"));
-			devices[i].set("name", device.get("name"));
-			devices[i].set("privateSession", device.get("is_private_session"));
+			for (Map.Entry<String, BiConsumer<Device, Object>> binder : 
+					JSON_BINDERS.entrySet()) {
+				binder.getValue().accept(devices[i], device.get(binder.getKey()));
+			}
 			i++;
 		} while (i < devicesCount);
 		
@@ -117,6 +145,10 @@ public class Device {
 		return thisDevice;
 	}
 	
+	public static Device initializeThisDevice(DocumentContext doc) {
+		return getThisDevice(initializeFromJSON(doc));
+	}
+	
 	public static Device getThisDevice(Device[] devices) {
 		
 		Device thisDevice = null;
@@ -0,0 +1,131 @@
+package logic.playbackstate;
+
+import java.util.Objects;
+
+import logic.song.Song;
+
+/**
+ * Extrapolates the progress of the playing track locally between polls, so the track
+ * bar can move smoothly while the playback state is only polled every few seconds.
+ *
+ * <p>Each <i>PlaybackState</i> gives the progress when the response was received, so
+ * the progress is anchored at its local <b>receivedAt</b> time. The server's
+ * <b>timestamp</b> is the time of the last play, pause, seek or track change rather
+ * than the time the progress was read, so it is only compared with the previous
+ * state's to tell when the playback was changed.
+ *
+ * <p>When the playback wasn't changed and a new state agrees with the extrapolated
+ * progress within <b>SLEW_THRESHOLD</b>, the clock is eased toward it so the track bar
+ * doesn't jitter; otherwise (a seek, a new track, or a play state change) it jumps to
+ * it.
+ */
+public class PlaybackClock {
+
+	/** How far in milliseconds a state can differ from the extrapolated progress and
+	 * still be eased toward rather than jumped to. */
+	public static final long SLEW_THRESHOLD = 1_500;
+
+	/** The fraction of the difference eased toward with each agreeing state. */
+	private static final double SLEW_RATE = 0.5;
+
+	/** The progress in milliseconds at <b>anchorTime</b>. */
+	private long anchorProgress;
+
+	/** The local time in Unix milliseconds of <b>anchorProgress</b>. */
+	private long anchorTime;
+
+	/** The duration of the track in milliseconds. */
+	private long duration;
+
+	private boolean playing;
+
+	/** The Spotify ID of the track, to know when the track changed. */
+	private String trackID;
+
+	/** The server time of the last change of the playback, to know when it changed. */
+	private long timestamp;
+
+	private boolean hasState;
+
+	/**
+	 * Reconciles the clock with the progress of <b>state</b>.
+	 *
+	 * @param state The state received from Spotify.
+	 */
+	public synchronized void update(PlaybackState state) {
+		Song song = state.getSong();
+		if (song == null) {
+			reset();
+			return;
+		}
+
+		long now = state.getReceivedAt();
+		long reported = song.getProgress();
+
+		boolean sameTrack = hasState && Objects.equals(trackID, song.getID());
+		boolean changed = song.getTimestamp() > 0 && song.getTimestamp() != timestamp;
+		boolean jump = !sameTrack || changed || playing != song.isPlaying() ||
+				Math.abs(reported - progressAt(now)) > SLEW_THRESHOLD;
+
+		if (jump) {
+			anchorProgress = reported;
+		} else {
+			long predicted = progressAt(now);
+			anchorProgress = predicted + Math.round((reported - predicted) * SLEW_RATE);
+		}
+
+		anchorTime = now;
+		duration = song.getDuration();
+		playing = song.isPlaying();
+		trackID = song.getID();
+		timestamp = song.getTimestamp();
+		hasState = true;
+	}
+
+	/**
+	 * Returns the extrapolated progress of the track at the local time <b>time</b>.
+	 *
+	 * @param time The local time in Unix milliseconds.
+	 * @return The progress in milliseconds, which stops at the track's duration.
+	 */
+	public synchronized long progressAt(long time) {
+		if (!hasState) {
+			return 0;
+		}
+		if (!playing) {
+			return anchorProgress;
+		}
+
+		long progress = anchorProgress + Math.max(0, time - anchorTime);
+		return (duration > 0) ? Math.min(progress, duration) : progress;
+	}
+
+	/**
+	 * Returns the extrapolated progress of the track now.
+	 *
+	 * @return The progress in milliseconds.
+	 */
+	public long getProgress() {
+		return progressAt(System.currentTimeMillis());
+	}
+
+	public synchronized long getDuration() {
+		return duration;
+	}
+
+	public synchronized boolean isPlaying() {
+		return hasState && playing;
+	}
+
+	/**
+	 * Forgets the track, such as when there is no active player.
+	 */
+	public synchronized void reset() {
+		hasState = false;
+		playing = false;
+		trackID = null;
+		timestamp = 0;
+		anchorProgress = 0;
+		duration = 0;
+	}
+}
@@ -0,0 +1,137 @@
+package logic.playbackstate;
+
+import java.util.Objects;
+
+import logic.device.Device;
+import logic.song.Song;
+
+/**
+ * The differences between two consecutive <i>PlaybackState</i> snapshots of the
+ * Spotify player, so that only the parts of the player that changed are reloaded or
+ * redrawn: a new album cover only when the track changed, the play/pause button only
+ * when the play state changed, and so on.
+ *
+ * @see PlaybackState
+ */
+public class PlaybackDelta {
+
+	/** How far in milliseconds the progress can differ from where it was expected to
+	 * be before it is considered to have jumped (a seek or a restart). */
+	public static final int PROGRESS_JUMP_TOLERANCE = 2_000;
+
+	/** The earlier snapshot (can be null if there was none). */
+	private final PlaybackState previous;
+
+	/** The latest snapshot. */
+	private final PlaybackState current;
+
+	private final boolean trackChanged;
+	private final boolean playStateChanged;
+	private final boolean progressJumped;
+	private final boolean deviceChanged;
+
+	private PlaybackDelta(PlaybackState previous, PlaybackState current,
+			boolean trackChanged, boolean playStateChanged, boolean progressJumped,
+			boolean deviceChanged) {
+		this.previous = previous;
+		this.current = current;
+		this.trackChanged = trackChanged;
+		this.playStateChanged = playStateChanged;
+		this.progressJumped = progressJumped;
+		this.deviceChanged = deviceChanged;
+	}
+
+	/**
+	 * Compares the <b>current</b> snapshot against the <b>previous</b> one. If there
+	 * is no <b>previous</b> snapshot or it has no song, everything is considered
+	 * changed.
+	 *
+	 * @param previous The last snapshot compared (can be null).
+	 * @param current The newest snapshot.
+	 * @return The <i>PlaybackDelta</i> between the two.
+	 */
+	public static PlaybackDelta between(PlaybackState previous, PlaybackState current) {
+		if (current == null) {
+			throw new NullPointerException("PlaybackState \"current\" is null.");
+		}
+
+		Song now = current.getSong();
+		Song before = (previous != null) ? previous.getSong() : null;
+
+		if (before == null || now == null) {
+			return new PlaybackDelta(previous, current, true, true, true, true);
+		}
+
+		boolean trackChanged = !isSameTrack(before, now);
+		boolean playStateChanged = before.isPlaying() != now.isPlaying();
+		boolean progressJumped = !trackChanged && Math.abs(now.getProgress()
+				- expectedProgress(previous, current.getReceivedAt()))
+				> PROGRESS_JUMP_TOLERANCE;
+		boolean deviceChanged = !Objects.equals(idOf(previous.getDevice()),
+				idOf(current.getDevice()));
+
+		return new PlaybackDelta(previous, current, trackChanged, playStateChanged,
+				progressJumped, deviceChanged);
+	}
+
+	/**
+	 * Returns true if both songs are the same track, comparing their Spotify IDs, or
+	 * their names and albums for local files that don't have one.
+	 */
+	private static boolean isSameTrack(Song a, Song b) {
+		if (a.getID() != null || b.getID() != null) {
+			return Objects.equals(a.getID(), b.getID());
+		}
+		return Objects.equals(a.getName(), b.getName())
+				&& Objects.equals(a.getAlbumURL(), b.getAlbumURL());
+	}
+
+	/**
+	 * Returns the progress the song of <b>state</b> would be at by <b>time</b> if it
+	 * kept playing normally.
+	 */
+	private static long expectedProgress(PlaybackState state, long time) {
+		Song song = state.getSong();
+		if (!song.isPlaying()) {
+			return song.getProgress();
+		}
+		return song.getProgress() + (time - state.getReceivedAt());
+	}
+
+	private static String idOf(Device d) {
+		return (d != null) ? d.getId() : null;
+	}
+
+	public PlaybackState getPrevious() {
+		return previous;
+	}
+
+	public PlaybackState getCurrent() {
+		return current;
+	}
+
+	/** Returns true if a different track is on the player. */
+	public boolean isTrackChanged() {
+		return trackChanged;
+	}
+
+	/** Returns true if the player was played or paused. */
+	public boolean isPlayStateChanged() {
+		return playStateChanged;
+	}
+
+	/** Returns true if the progress moved other than by playing, such as by seeking. */
+	public boolean isProgressJumped() {
+		return progressJumped;
+	}
+
+	/** Returns true if the playback moved to a different device. */
+	public boolean isDeviceChanged() {
+		return deviceChanged;
+	}
+
+	/** Returns true if anything other than the normal advance of progress changed. */
+	public boolean hasChanges() {
+		return trackChanged || playStateChanged || progressJumped || deviceChanged;
+	}
+}
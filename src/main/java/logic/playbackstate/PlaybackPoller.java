@@ -0,0 +1,253 @@
+package logic.playbackstate;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import logic.song.Song;
+
+/**
+ * Polls the Spotify player's playback state on a <i>ScheduledExecutorService</i>,
+ * adapting how often it polls to what the player is doing rather than polling at a
+ * fixed rate:
+ *
+ * <ul>
+ * <li>While playing, every <b>PLAYING_INTERVAL</b>, and shortly after the track is
+ * predicted to end, so the next track is shown without waiting a whole interval.</li>
+ * <li>While paused, or with no active device or no connection, backing off
+ * exponentially up to <b>MAX_IDLE_INTERVAL</b>.</li>
+ * <li>Right after a local user action, when {@code nudge()} is called.</li>
+ * </ul>
+ *
+ * <p>Each poll runs the <b>poll</b> supplier, which makes the request and updates the
+ * player, and returns the <i>PlaybackState</i> received, or null if there was no
+ * active player or the request failed.
+ */
+public class PlaybackPoller {
+
+	/** The interval in milliseconds while a song is playing. The progress in between
+	 * is extrapolated by <i>PlaybackClock</i>. */
+	public static final long PLAYING_INTERVAL = 5_000;
+
+	/** The first interval in milliseconds once paused or idle, which then doubles. */
+	public static final long MIN_IDLE_INTERVAL = 2_000;
+
+	/** The longest interval in milliseconds while paused or idle. */
+	public static final long MAX_IDLE_INTERVAL = 30_000;
+
+	/** How long in milliseconds after a user action to poll, giving Spotify time to
+	 * apply it. */
+	public static final long NUDGE_DELAY = 300;
+
+	/** How long in milliseconds after the predicted end of a track to poll. */
+	private static final long TRACK_END_MARGIN = 300;
+
+	/** The window in milliseconds the calls per hour are counted over. */
+	private static final long HOUR = 3_600_000;
+
+	/** Makes the request and updates the player, returning the state received. */
+	private final Supplier<PlaybackState> poll;
+
+	private final ScheduledExecutorService scheduler =
+			Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread t = new Thread(r, "playback-poller");
+				t.setDaemon(true);
+				return t;
+			});
+
+	/** The next poll scheduled, which is replaced when nudged. */
+	private ScheduledFuture<?> nextPoll;
+
+	/** The interval in milliseconds until the next poll. */
+	private long currentInterval = PLAYING_INTERVAL;
+
+	/** The interval while idle, which doubles with each idle poll. */
+	private long idleInterval = MIN_IDLE_INTERVAL;
+
+	/** The local time in Unix milliseconds of each poll in the last hour. */
+	private final Deque<Long> pollTimes = new ArrayDeque<>();
+
+	/** The local time in Unix milliseconds the poller was started. */
+	private long startedAt;
+
+	private boolean running;
+
+	/** Is true while a poll is being made. */
+	private boolean polling;
+
+	/** Is true if nudged while a poll was being made, which may have received the
+	 * state from before the user's action. */
+	private boolean nudgedWhilePolling;
+
+	/**
+	 * Creates a poller that runs <b>poll</b> once started.
+	 *
+	 * @param poll Makes the request and updates the player, returning the
+	 * <i>PlaybackState</i> received or null if there was none.
+	 */
+	public PlaybackPoller(Supplier<PlaybackState> poll) {
+		if (poll == null) {
+			throw new NullPointerException("Supplier \"poll\" is null.");
+		}
+		this.poll = poll;
+	}
+
+	/**
+	 * Starts polling immediately. Does nothing if already started.
+	 */
+	public synchronized void start() {
+		if (running) {
+			return;
+		}
+		running = true;
+		startedAt = System.currentTimeMillis();
+		schedule(0);
+	}
+	
+	/**
+	 * Starts polling, with the first poll when it would follow <b>last</b>, such as a
+	 * state received while starting the player. Does nothing if already started.
+	 *
+	 * @param last The last state received, or null if there was none.
+	 */
+	public synchronized void start(PlaybackState last) {
+		if (running) {
+			return;
+		}
+		running = true;
+		startedAt = System.currentTimeMillis();
+		schedule(nextInterval(last));
+	}
+
+	/**
+	 * Stops polling after the poll in progress, if any.
+	 */
+	public synchronized void stop() {
+		running = false;
+		if (nextPoll != null) {
+			nextPoll.cancel(false);
+		}
+	}
+
+	/**
+	 * Polls shortly, instead of when next scheduled, and resets the idle back off.
+	 * Called after a local user action (play, pause, skip) so the player reflects it
+	 * right away.
+	 */
+	public synchronized void nudge() {
+		if (!running) {
+			return;
+		}
+		idleInterval = MIN_IDLE_INTERVAL;
+
+		if (polling) {
+			nudgedWhilePolling = true;
+		} else if (nextPoll == null || 
+				nextPoll.getDelay(TimeUnit.MILLISECONDS) > NUDGE_DELAY) {
+			schedule(NUDGE_DELAY);
+		}
+	}
+
+	/** Replaces the next poll with one in <b>delay</b> milliseconds. */
+	private void schedule(long delay) {
+		if (nextPoll != null) {
+			nextPoll.cancel(false);
+		}
+		currentInterval = delay;
+		nextPoll = scheduler.schedule(this::runPoll, delay, TimeUnit.MILLISECONDS);
+	}
+
+	private void runPoll() {
+		PlaybackState state = null;
+
+		synchronized (this) {
+			polling = true;
+			nudgedWhilePolling = false;
+			recordPoll(System.currentTimeMillis());
+		}
+
+		try {
+			state = poll.get();
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+		}
+
+		synchronized (this) {
+			polling = false;
+			if (running) {
+				long interval = nextInterval(state);
+				schedule(nudgedWhilePolling ? Math.min(interval, NUDGE_DELAY) : interval);
+			}
+		}
+	}
+
+	/**
+	 * Returns how long to wait until the next poll after receiving <b>state</b>.
+	 *
+	 * @param state The state received, or null if there was none.
+	 * @return The interval in milliseconds.
+	 */
+	private long nextInterval(PlaybackState state) {
+		Song song = (state != null) ? state.getSong() : null;
+
+		if (song == null || !song.isPlaying()) {
+			long interval = idleInterval;
+			idleInterval = Math.min(idleInterval * 2, MAX_IDLE_INTERVAL);
+			return interval;
+		}
+
+		idleInterval = MIN_IDLE_INTERVAL;
+
+		// polls just after the track is predicted to end, if that's sooner
+		long elapsed = System.currentTimeMillis() - state.getReceivedAt();
+		long remaining = song.getDuration() - song.getProgress() - elapsed;
+		if (song.getDuration() > 0 && remaining + TRACK_END_MARGIN < PLAYING_INTERVAL) {
+			return Math.max(remaining + TRACK_END_MARGIN, NUDGE_DELAY);
+		}
+
+		return PLAYING_INTERVAL;
+	}
+
+	private void recordPoll(long time) {
+		pollTimes.addLast(time);
+		while (!pollTimes.isEmpty() && pollTimes.peekFirst() < time - HOUR) {
+			pollTimes.removeFirst();
+		}
+	}
+
+	/**
+	 * Returns the interval in milliseconds until the next poll.
+	 *
+	 * @return The current interval.
+	 */
+	public synchronized long getCurrentInterval() {
+		return currentInterval;
+	}
+
+	/**
+	 * Returns the number of polls (playback state requests) made in the last hour, or
+	 * if polling for less than an hour, the number made so far projected to an hour.
+	 *
+	 * @return The API calls per hour.
+	 */
+	public synchronized long getCallsPerHour() {
+		long now = System.currentTimeMillis();
+		while (!pollTimes.isEmpty() && pollTimes.peekFirst() < now - HOUR) {
+			pollTimes.removeFirst();
+		}
+
+		long elapsed = now - startedAt;
+		if (startedAt == 0 || elapsed >= HOUR) {
+			return pollTimes.size();
+		}
+		return pollTimes.size() * HOUR / Math.max(elapsed, 60_000);
+	}
+
+	public synchronized boolean isRunning() {
+		return running;
+	}
+}
@@ -0,0 +1,39 @@
+package logic.playbackstate;
+
+import logic.device.Device;
+import logic.song.Song;
+
+/**
+ * The Spotify player's state from one playback state response: the <i>Song</i> on the
+ * player, the active <i>Device</i>, and the local time the response was received.
+ * Both are initialized from the same parsed JSON.
+ */
+public class PlaybackState {
+
+	/** The song on the player, without its album cover loaded. */
+	private final Song song;
+
+	/** The device the player is active on (can be null). */
+	private final Device device;
+
+	/** The local time in Unix milliseconds the response was received. */
+	private final long receivedAt;
+
+	public PlaybackState(Song song, Device device, long receivedAt) {
+		this.song = song;
+		this.device = device;
+		this.receivedAt = receivedAt;
+	}
+
+	public Song getSong() {
+		return song;
+	}
+
+	public Device getDevice() {
+		return device;
+	}
+
+	public long getReceivedAt() {
+		return receivedAt;
+	}
+}
@@ -6,6 +6,9 @@ import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
@@ -16,16 +19,30 @@ import javax.imageio.ImageIO;
 
 import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 
 import kong.unirest.Unirest;
+import logic.albumart.AlbumArt;
+import logic.albumart.AlbumArtCache;
+import logic.albumart.AlbumArtDecoder;
 import logic.device.Device;
+import logic.playbackstate.PlaybackClock;
+import logic.playbackstate.PlaybackDelta;
+import logic.playbackstate.PlaybackPoller;
+import logic.playbackstate.PlaybackState;
 import logic.preview.Preview;
-import logic.song.JSONPreset;
 import logic.song.JSONSongException;
 import logic.song.Song;
+import logic.song.SongSnapshot;
+import logic.spotifyapi.RateLimitedException;
+import logic.spotifyapi.RequestScheduler;
+import logic.spotifyapi.RequestSupersededException;
 import logic.spotifyapi.SpotifyAPI;
 import logic.spotifyapi.SpotifyAPIException;
+import logic.spotifyapi.SpotifyAsyncAPI;
+import logic.spotifyapi.SpotifyTransport;
 import logic.spotifycredentials.SpotifyCredentials;
+import logic.startup.StartupOrchestrator;
 import net.coobird.thumbnailator.Thumbnails;
 import renderer.display.Display;
 
@@ -47,6 +64,10 @@ public class PlayerLogic implements PlayerActionConstants {
 	 * Code + PKCE</i> flow (plays from a user's account). */
 	private static SpotifyAPI spotifyAPI = new SpotifyAPI();
 	
+	/** Makes the requests of <b>spotifyAPI</b> on I/O threads so that the Swing 
+	 * listeners calling this class never wait on the network. */
+	private static SpotifyAsyncAPI spotifyAsyncAPI = new SpotifyAsyncAPI(spotifyAPI);
+	
 	/** A boolean that is <b>true</b> if using the <i>Authorization Code + PKCE</i> flow 
 	 * (accesses a Spotify account), and <b>false</b> if using the <i>Client 
 	 * Authorization</i> flow (doesn't access a Spotify account and plays previews)
@@ -58,6 +79,10 @@ public class PlayerLogic implements PlayerActionConstants {
 	/** The current song of the player. **/
 	private static Song currentSong;
 	
+	/** A snapshot of <b>currentSong</b>, republished whenever it changes, so the 
+	 * player actions can read it without waiting for <b>lock</b>. */
+	private static volatile SongSnapshot currentSnapshot;
+	
 	/** Keeps track of if the player is playing, paused, or stopped. */
 	private static int playerState;
 	
@@ -76,46 +101,163 @@ public class PlayerLogic implements PlayerActionConstants {
 	/** This device on Spotify servers. */
 	private static Device thisDevice;
 	
-	/** A thread that gets updates on the playback state of Spotify every second. */
-	private static Thread updatePlaybackState = createUpdateThread();
+	/** Gets updates on the playback state of Spotify, more often while playing than 
+	 * while paused or idle. */
+	private static PlaybackPoller playbackPoller = 
+			new PlaybackPoller(PlayerLogic::pollPlaybackState);
+	
+	/** The most bytes of scaled album covers kept in memory (about 80 covers at the
+	 * default album cover scale). */
+	private static final long ALBUM_ART_CACHE_BYTES = 8L * 1024 * 1024;
+	
+	/** The album covers already downloaded and scaled, by URL and size. */
+	private static final AlbumArtCache albumArtCache = 
+			new AlbumArtCache(ALBUM_ART_CACHE_BYTES);
+	
+	/** Extrapolates the progress of the playing track between polls. */
+	private static final PlaybackClock playbackClock = new PlaybackClock();
+	
+	/** How often in milliseconds the track bar is moved while playing. */
+	private static final int PROGRESS_TICK = 100;
+	
+	/** Moves the track bar to the progress of <b>playbackClock</b> while playing. */
+	private static final Timer progressTimer = 
+			new Timer(PROGRESS_TICK, e -> updateTrackBar());
 	
-	/** The time the last accessToken was granted in seconds. */
-	private static long accessTokenTime;
+	/** Decodes album covers off the poller and the Event Dispatch Thread. */
+	private static final AlbumArtDecoder albumArtDecoder = new AlbumArtDecoder();
+	
+	/** The last playback state received, which the next one is compared against. */
+	private static PlaybackState lastPlaybackState;
 	
 	/** ReentrantLock for thread stability. */
 	private static ReentrantLock lock = new ReentrantLock();
 	
 	public static void main (String[] args) {
+		// opens the connections to Spotify while the user is authorizing
+		SpotifyTransport.getDefault().prewarm(SpotifyTransport.SPOTIFY_HOSTS);
+		
+		// how long requests waited behind each other, and how many were shared
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			System.out.print(RequestScheduler.getShared().getQueueWaitReport());
+			if (spotifyAPI != null) {
+				System.out.println("Identical GETs shared: " 
+						+ spotifyAPI.getCoalescedCallsSaved() + " of " 
+						+ spotifyAPI.getCoalescedCalls());
+			}
+		}, "request-report"));
+		
 		loadPlayer();
 	}
 	
+	/** 
+	 * Starts the player. With the <i>Authorization Code + PKCE</i> flow, the phases of 
+	 * starting run on a <i>StartupOrchestrator</i>, so that the images are drawn and 
+	 * the frame is built while the user authorizes, and the devices, the playback 
+	 * state and its album cover are fetched at the same time once authorized. The 
+	 * timeline of the phases is printed once they are done.
+	 */
 	public static void loadPlayer () {
 		if (authCodeFlow) {
 			
+			StartupOrchestrator startup = new StartupOrchestrator();
+			
+			// needs no authorization
+			startup.addPhase("images", Display::prerenderImages);
+			startup.addPhase("frame", () -> onEventDispatchThread(() -> {
+				display = Display.createDisplayInstance(authCodeFlow, false);
+			}), "images");
+			
+			CompletableFuture<Void> authorization = new CompletableFuture<>();
 			try {
-				spotifyAPI = new SpotifyAPI(() -> {
-					if (spotifyAPI.authorizationSuccessful()) {
-						accessTokenTime = System.currentTimeMillis() / 1_000;
-						display = Display.createDisplayInstance(authCodeFlow);
-						updatePlaybackState.run();
-					} else { // User probably closed approvalBrowser
-						showUserUninterestedAlert();
-					}
-					
-				});
+				spotifyAPI = new SpotifyAPI(() -> authorization.complete(null));
+				spotifyAsyncAPI = new SpotifyAsyncAPI(spotifyAPI);
 			} catch (SpotifyAPIException se) {
 				if (se.getMessage().contains("Could not get connection.")) {
 					noConnectionAlert();
 				}
+				return;
 			}
 			
+			startup.addPhase("token", () -> authorization.thenRun(() -> {
+				if (!spotifyAPI.authorizationSuccessful()) {
+					throw new SpotifyAPIException("Authorization was unsuccessful.");
+				}
+			}));
+			
+			// needs authorization
+			startup.addPhase("show", () -> onEventDispatchThread(() -> {
+				display.setVisible(true);
+			}), "frame", "token");
+			startup.addPhase("devices", () -> spotifyAsyncAPI.getThisDevice()
+					.thenApply(device -> thisDevice = device), "token");
+			
+			// null if there's no active player, which the poller then shows
+			CompletableFuture<PlaybackState> firstState = startup.addPhase("playbackState",
+					() -> spotifyAsyncAPI.getPlaybackState().exceptionally(ex -> null), 
+					"token");
+			startup.addPhase("cover", () -> {
+				Song song = (firstState.join() != null) ? 
+						firstState.join().getSong() : null;
+				String url = (song != null) ? song.getAlbumURL(albumCoverSize()) : null;
+				
+				return (url != null) ? 
+						loadAlbumArtAsync(url).exceptionally(ex -> null) : 
+						CompletableFuture.completedFuture(null);
+			}, "playbackState");
+			
+			// the cover is then already in albumArtCache
+			startup.addPhase("firstSong", () -> spotifyAsyncAPI.supplyAsync(() -> {
+				if (firstState.join() == null) {
+					return null;
+				}
+				lock.lock();
+				try {
+					return applyPlaybackState(firstState.join());
+				} finally {
+					lock.unlock();
+				}
+			}), "frame", "playbackState", "cover");
+			startup.addPhase("poller", () -> {
+				playbackPoller.start(firstState.join());
+				return CompletableFuture.completedFuture(null);
+			}, "firstSong");
+			
+			startup.whenAllDone().thenRun(() -> {
+				System.out.print(startup.getTimeline());
+				
+				if (startup.getPhase("token").isCompletedExceptionally()) {
+					// User probably closed approvalBrowser
+					SwingUtilities.invokeLater(Display::disposeDisplayInstance);
+					showUserUninterestedAlert();
+				}
+			});
+			
 		} else { // Client Auth flow
 			authorizeClientFlow();
 		}
 	}
 	
+	/** Runs <b>r</b> on the Event Dispatch Thread.
+	 * 
+	 * @return A <i>CompletableFuture</i> completed once <b>r</b> has run.
+	 */
+	private static CompletableFuture<Void> onEventDispatchThread (Runnable r) {
+		CompletableFuture<Void> done = new CompletableFuture<>();
+		SwingUtilities.invokeLater(() -> {
+			try {
+				r.run();
+				done.complete(null);
+			} catch (RuntimeException e) {
+				done.completeExceptionally(e);
+			}
+		});
+		return done;
+	}
+	
 	public static void authorizeClientFlow() {
 		spotifyAPI = new SpotifyAPI();
+		spotifyAsyncAPI = new SpotifyAsyncAPI(spotifyAPI);
 		try {
 			spotifyAPI.setSpotifyCredentials(false, null);
 		} catch (SpotifyAPIException se) {
@@ -127,100 +269,200 @@ public class PlayerLogic implements PlayerActionConstants {
 		display = Display.createDisplayInstance();
 		
 		try {
-			String returnJson = spotifyAPI.searchForSongs("battle scars", 1);
-			currentSong = Song.initializeFromJSON(returnJson, 
-					JSONPreset.getJSONPresetbyName("search"))[0];
-			currentSong.setAlbumCover(loadAlbumCover(currentSong.getAlbumURL(), true));
+			currentSong = spotifyAPI.fetchSongs("battle scars", 1)[0];
+			currentSong.setAlbumCover(
+					loadAlbumCover(currentSong.getAlbumURL(albumCoverSize()), true));
 		} catch (SpotifyAPIException se) {
 			if (se.getMessage().contains("Authorization was unsuccessful.")) {
 				currentSong = new Song("No internet connection");
 			}
 		}
 		
-		display.displaySong(currentSong.getDeepCopy());
+		display.displaySong(currentSong.toSnapshot());
 	}
 	
-	public static Thread createUpdateThread () {
-		return new Thread(() -> {
-			while (true) {
-				lock.lock();
-				
-				Device activeDevice = new Device();
-				String json = null;
-				
-				try {
-					// Checks if access token needs to be refreshed
-					if (System.currentTimeMillis() / 1_000 - accessTokenTime > 355) {
-						spotifyAPI.requestRefreshToken();
-						accessTokenTime = System.currentTimeMillis() / 1_000;
-					}
-					
-					// Gets the song on Spotify without albumCover
-					json = spotifyAPI.getPlaybackState(false);
-					Song playbackSong = Song.initializeFromJSON(json, 
-							JSONPreset.getJSONPresetbyName("playbackState"))[0];
-					activeDevice = Device.initializeThisDevice(json);
-					
-					if (playbackSong != null) {
-						
-						// Loads the album cover if not already loaded
-						if (currentSong == null ||
-								currentSong.getID() != playbackSong.getID()) {
-							
-							currentSong = playbackSong;
-							currentSong.setAlbumCover(
-									loadAlbumCover(currentSong.getAlbumURL(), true));
-						
-						} else { // Just updates the data
-							
-							playbackSong.setAlbumCover(currentSong.getAlbumCover());
-							currentSong = playbackSong;
-							
-						}
-						
-						display.displaySong(currentSong.getDeepCopy(), 
-								!currentSong.isPlaying());
-						
-						playerState = (currentSong.isPlaying()) ? PLAYING : PAUSED;
-					} else {
-						System.out.println("No song returned.");
-					}
-				} catch (JSONSongException jse) {
-					if (jse.getMessage().contains("Empty JSON String: {}")) {
-						System.out.println("No active player.");
-						
-					} else if (jse.getMessage().contains("No song information at "
-							+ "baseJSONPath")) {
-						
-						if (currentSong != null) {
-							currentSong.setName("Active Device In Private Mode");
-							currentSong.setArtists("");
-						} else {
-							currentSong = new Song("Active Device In Private Mode");
-						}
-						
-						display.displaySong(currentSong.getDeepCopy(), true);
-					} else {
-						jse.printStackTrace();
-					}
-					
-				} catch (SpotifyAPIException e) {
-					System.out.print("Could not connect to the internet");
-				} finally {
-					lock.unlock();
-				}
-				
-				try {
-					Thread.sleep(1000);
-				} catch (InterruptedException e) {
-					e.printStackTrace();
-				}
+	/** 
+	 * Gets the playback state of Spotify and updates <b>currentSong</b> and 
+	 * <b>display</b> with it. Run by <b>playbackPoller</b>, which decides how often.
+	 * 
+	 * @return The <i>PlaybackState</i> received, or null if there was no active player
+	 * or it couldn't be received.
+	 */
+	private static PlaybackState pollPlaybackState () {
+		
+		PlaybackState playbackState;
+		
+		// fetched without the lock, so the user's requests don't wait for the poll
+		try {
+			// Gets the song on Spotify without albumCover
+			playbackState = spotifyAPI.fetchPlaybackState();
+			
+		} catch (JSONSongException jse) {
+			lock.lock();
+			try {
+				clearPlaybackState(jse);
+			} finally {
+				lock.unlock();
 			}
-		});
+			return null;
+			
+		} catch (RequestSupersededException e) {
+			// a newer poll is being made
+			return null;
+		} catch (RateLimitedException e) {
+			// skipped to leave the budget to the user's requests
+			System.out.println("Playback state not polled: " + e.getMessage());
+			return null;
+		} catch (SpotifyAPIException e) {
+			System.out.print("Could not connect to the internet");
+			return null;
+		}
+		
+		lock.lock();
+		try {
+			return applyPlaybackState(playbackState);
+		} finally {
+			lock.unlock();
+		}
+	}
+	
+	/** 
+	 * Forgets the playback state after a poll found no song on the player, showing 
+	 * if the active device is in a private session. Must be called holding 
+	 * <b>lock</b>.
+	 * 
+	 * @param jse The exception thrown for the playback state received.
+	 */
+	private static void clearPlaybackState (JSONSongException jse) {
+		lastPlaybackState = null;
+		playbackClock.reset();
+		progressTimer.stop();
+		
+		if (jse.getMessage().contains("Empty JSON String: {}")) {
+			System.out.println("No active player.");
+			
+		} else if (jse.getMessage().contains("No song information at "
+				+ "baseJSONPath")) {
+			
+			if (currentSong != null) {
+				currentSong.setName("Active Device In Private Mode");
+				currentSong.setArtists("");
+			} else {
+				currentSong = new Song("Active Device In Private Mode");
+			}
+			
+			display.displaySong(publishCurrentSong(), true);
+		} else {
+			jse.printStackTrace();
+		}
+	}
+	
+	/** 
+	 * Updates <b>currentSong</b> and <b>display</b> with <b>playbackState</b>. Must be 
+	 * called holding <b>lock</b>.
+	 * 
+	 * @param playbackState The playback state received from Spotify.
+	 * @return <b>playbackState</b>, or null if it has no song.
+	 */
+	private static PlaybackState applyPlaybackState (PlaybackState playbackState) {
+		
+		Song playbackSong = playbackState.getSong();
+		Device activeDevice = playbackState.getDevice();
+		
+		if (playbackSong == null) {
+			System.out.println("No song returned.");
+			return null;
+		}
+		
+		PlaybackDelta delta = PlaybackDelta.between(lastPlaybackState, playbackState);
+		lastPlaybackState = playbackState;
+		
+		playbackClock.update(playbackState);
+		updateCurrentSong(delta);
+		
+		// moves the track bar between polls while playing
+		if (playbackClock.isPlaying()) {
+			progressTimer.start();
+		} else {
+			progressTimer.stop();
+		}
+		
+		if (delta.isDeviceChanged() && activeDevice != null) {
+			System.out.println("Playing on " + activeDevice.getName());
+		}
+		
+		playerState = (currentSong.isPlaying()) ? PLAYING : PAUSED;
+		return playbackState;
+	}
+	
+	/** 
+	 * Updates <b>currentSong</b> and <b>display</b> with the latest playback state,
+	 * only loading the album cover and redrawing the song when the track changed, the 
+	 * play/pause button when the play state changed, and the track bar after a seek
+	 * (<b>progressTimer</b> moves it while playing).
+	 * 
+	 * @param delta The changes since the last playback state.
+	 */
+	private static void updateCurrentSong (PlaybackDelta delta) {
+		
+		Song playbackSong = delta.getCurrent().getSong();
+		boolean sameAsCurrent = currentSong != null && 
+				Objects.equals(currentSong.getID(), playbackSong.getID());
+		
+		if (delta.isTrackChanged() || !sameAsCurrent) {
+			
+			// Loads the album cover if not already loaded, such as by a search
+			if (sameAsCurrent) {
+				playbackSong.setAlbumArt(currentSong.getAlbumArt());
+			} else {
+				attachAlbumArt(playbackSong);
+			}
+			currentSong = playbackSong;
+			
+			display.displaySong(publishCurrentSong(), !currentSong.isPlaying());
+			return;
+		}
+		
+		// Just updates the data
+		currentSong.setProgress(playbackSong.getProgress());
+		currentSong.setTimestamp(playbackSong.getTimestamp());
+		currentSong.setPlaying(playbackSong.isPlaying());
+		publishCurrentSong();
+		
+		if (delta.isPlayStateChanged()) {
+			display.setPlayPauseImage(!currentSong.isPlaying());
+		}
+		if (delta.isProgressJumped() || delta.isPlayStateChanged()) {
+			updateTrackBar();
+		}
 	}
 	
 	/** 
-	 * Called when the user presses enter in searchBar in searching for a track.
+	 * Publishes a snapshot of <b>currentSong</b> to <b>currentSnapshot</b>. Must be 
+	 * called holding <b>lock</b> after changing <b>currentSong</b>.
+	 * 
+	 * @return The snapshot published, or null if there is no <b>currentSong</b>.
+	 */
+	private static SongSnapshot publishCurrentSong () {
+		currentSnapshot = (currentSong != null) ? currentSong.toSnapshot() : null;
+		return currentSnapshot;
+	}
+	
+	/** 
+	 * Updates the track bar of <b>display</b> to the progress extrapolated by 
+	 * <b>playbackClock</b>. Run by <b>progressTimer</b> while playing.
+	 */
+	private static void updateTrackBar () {
+		if (display != null) {
+			display.updateTrackBar(playbackClock.getProgress(), 
+					playbackClock.getDuration());
+		}
+	}
+	
+	/** 
+	 * Called when the user presses enter in searchBar in searching for a track. The
+	 * search and album cover are requested on an I/O thread, so this returns 
+	 * immediately.
 	 * 
 	 * @param search The keywords to search for that are sent to the Spotify API. 
 	 * */
@@ -234,31 +476,27 @@ public class PlayerLogic implements PlayerActionConstants {
 			}
 		}
 		
-		String json = spotifyAPI.searchForSongs(search, 1);
-		Song searchSong = Song.initializeFromJSON(json,
-				JSONPreset.getJSONPresetbyName("search"))[0];
-		
-		// came back with valid response
-		if (searchSong != null) {
+		spotifyAsyncAPI.searchForSongs(search, 1).whenComplete((songs, ex) -> {
 			
-			searchSong.setAlbumCover(loadAlbumCover(searchSong.getAlbumURL(), true));
-			
-			try {
-				boolean unlocked = false;
-				do {
-					unlocked = lock.tryLock();
-					if (unlocked) {
-						currentSong = searchSong;
-						display.displaySong(currentSong.getDeepCopy(), false); // pause
-						play();
-					}
-				} while (!unlocked);
-			} finally {
-				lock.unlock();
+			// came back with valid response
+			if (ex == null) {
+				Song searchSong = songs[0];
+				
+				lock.lock();
+				try {
+					attachAlbumArt(searchSong);
+					currentSong = searchSong;
+					display.displaySong(publishCurrentSong(), false); // pause
+					play();
+				} finally {
+					lock.unlock();
+				}
+			} else if (ex.getCause() instanceof JSONSongException) {
+				showMessage("No songs found", "Nothin'", 0);
+			} else {
+				ex.printStackTrace();
 			}
-		} else {
-			JOptionPane.showMessageDialog(null, "No songs found", "Nothin'", 0);
-		}
+		});
 	}
 	
 	/** 
@@ -269,22 +507,22 @@ public class PlayerLogic implements PlayerActionConstants {
 		
 		if (authCodeFlow) { // Authorization Code play
 			
-			playerAction(PLAY);
+			playerActionAsync(PLAY);
 			
 		} else { // Client Authorization (plays preview)
 			if (currentSong == null) {
-				JOptionPane.showMessageDialog(null, "Must search for a song to play, or "
+				showMessage("Must search for a song to play, or "
 						+ "begin playback on another device to load song.",
 	        			"Song not loaded", 0);
 				
 			} else if (currentSong.getPreviewURL() == null) {
-				JOptionPane.showMessageDialog(null, "No preview URL for this track.",
+				showMessage("No preview URL for this track.",
         			"I Am Outdated", 0);
 				
 			} else {
 				playPreview();
 				SwingUtilities.invokeLater(() -> {
-					display.displaySong(currentSong.getDeepCopy());
+					display.displaySong(currentSong.toSnapshot());
 				});
 				
 				playerState = PLAYING;
@@ -296,32 +534,31 @@ public class PlayerLogic implements PlayerActionConstants {
 	 * Pauses preview by setting the playerState to PAUSED, which makes
 	 * playPreview() thread finish.
 	 */
-	public static String pause () {
+	public static CompletableFuture<String> pause () {
 		if (authCodeFlow) {
-			return playerAction(PAUSE);
+			return playerActionAsync(PAUSE);
 		} else {
 			pausePreview();
-			return "";
+			return CompletableFuture.completedFuture("");
 		}
 	}
 	
-	public static String next() {
-		return playerAction(NEXT);
+	public static CompletableFuture<String> next() {
+		return playerActionAsync(NEXT);
 	}
 	
-	public static String previous() {
-		return playerAction(PREVIOUS);
+	public static CompletableFuture<String> previous() {
+		return playerActionAsync(PREVIOUS);
 	}
 	
 	public static String addToQueue(String search) {
 		
-		String json = spotifyAPI.searchForSongs(search, 1);
-		Song songToQueue = Song.initializeFromJSON(json)[0];
+		Song songToQueue = spotifyAPI.fetchSongs(search, 1)[0];
 		
 		String response = "";
 		
 		if (songToQueue == null) {
-			JOptionPane.showMessageDialog(null, "No song found to add to queue.",
+			showMessage("No song found to add to queue.",
         			"Song Not Found", 0);
 			
 		} else {
@@ -333,12 +570,45 @@ public class PlayerLogic implements PlayerActionConstants {
 		return response;
 	}
 	
+	/** Returns the poller of the playback state, which reports its interval and calls
+	 * per hour. */
+	public static PlaybackPoller getPlaybackPoller () {
+		return playbackPoller;
+	}
+	
+	/** 
+	 * Performs the player <b>action</b> on an I/O thread, so Swing listeners can call 
+	 * it without waiting on the requests it makes.
+	 * 
+	 * @param action One of the action constants of <i>PlayerActionConstants</i>.
+	 * @return A <i>CompletableFuture</i> of the JSON response of the action.
+	 * @see #playerAction(int)
+	 */
+	public static CompletableFuture<String> playerActionAsync (int action) {
+		return spotifyAsyncAPI.supplyAsync(() -> playerAction(action))
+				.whenComplete((response, ex) -> {
+					Throwable cause = (ex instanceof CompletionException && 
+							ex.getCause() != null) ? ex.getCause() : ex;
+					if (cause instanceof RateLimitedException) {
+						showRateLimitedAlert((RateLimitedException) cause);
+					} else if (ex != null) {
+						ex.printStackTrace();
+					}
+					// shows the result of the action without waiting for the next poll
+					playbackPoller.nudge();
+				});
+	}
+	
 	public static String playerAction (int action) {
 		
 		String response = "";
-		Device thisDevice = Device.initializeThisDevice(spotifyAPI.getDevices());
+		
+		// read without the lock, so a click doesn't wait for a poll in flight
+		SongSnapshot song = currentSnapshot;
+		
+		Device thisDevice = Device.getThisDevice(spotifyAPI.fetchDevices());
 			
-		if (currentSong == null) { // no active device, no song, simply clicked
+		if (song == null) { // no active device, no song, simply clicked
 			
 			switch (action) {
 				case PLAY:
@@ -351,7 +621,7 @@ public class PlayerLogic implements PlayerActionConstants {
 					}
 					break;
 				case PAUSE:
-					JOptionPane.showMessageDialog(null, "No song to pause.",
+					showMessage("No song to pause.",
 		        			"No Song Playing", 0);
 					return "";
 				case NEXT:
@@ -373,7 +643,7 @@ public class PlayerLogic implements PlayerActionConstants {
 			// Tries to perform action from active device
 			switch (action) {
 				case PLAY:
-					response = spotifyAPI.play(currentSong.getDeepCopy(), null);
+					response = spotifyAPI.play(song, null);
 					break;
 				case PAUSE:
 					response = spotifyAPI.pauseFrom(null);
@@ -392,8 +662,7 @@ public class PlayerLogic implements PlayerActionConstants {
 						case PLAY:
 							response = spotifyAPI.transferPlayback(false, 
 									thisDevice.getId());
-							response = spotifyAPI.play(currentSong.getDeepCopy(), 
-									thisDevice);
+							response = spotifyAPI.play(song, thisDevice);
 							break;
 						case PAUSE:
 							spotifyAPI.pauseFrom(thisDevice);
@@ -413,15 +682,15 @@ public class PlayerLogic implements PlayerActionConstants {
 			if (response.equals("{}")) {
 				playerState = (action == PAUSED) ? PAUSED : PLAYING;
 			} else if (response.contains("Restriction violated")) {
-				JOptionPane.showMessageDialog(null, "No song to play.",
+				showMessage("No song to play.",
         			"No Specified Song", 0);
 			} else {
-				JOptionPane.showMessageDialog(null, "Spotify Bar Crashed.",
+				showMessage("Spotify Bar Crashed.",
 	        			"Unanticipated JSON response: \n" + response, 0);
 				throw new RuntimeException(response);
 			}
 	
-			// updatePlaybackState thread will update GUI
+			// playbackPoller will update GUI
 		}
 		
 		return response;
@@ -429,7 +698,9 @@ public class PlayerLogic implements PlayerActionConstants {
 	
 	/** 
 	 * Loads and returns a BufferedImage from the specified url. Can additionally
-	 * scale to size used in display to prevent continual scaling.
+	 * scale to size used in display to prevent continual scaling. Album covers already
+	 * loaded are returned from <b>albumArtCache</b>, and are shared, so must not be
+	 * modified.
 	 * 
 	 * @param url The URL to load the album cover from as a String. 
 	 * @param displaySize if true, additionally scales albumCover to the size used
@@ -437,16 +708,121 @@ public class PlayerLogic implements PlayerActionConstants {
 	 * */
 	public static BufferedImage loadAlbumCover (String url, boolean displaySize) {
 		
-		BufferedImage albumCover = spotifyAPI.loadAlbumCover(url);
+		int size = (displaySize) ? albumCoverSize() : 0;
+		String key = AlbumArtCache.key(url, size);
 		
-		if (displaySize) {
+		AlbumArt cached = albumArtCache.get(key);
+		if (cached != null) {
+			return cached.getImage();
+		}
+		
+		BufferedImage albumCover = spotifyAPI.loadAlbumCover(url, size);
+		
+		if (displaySize && albumCover != null) {
 			// scales albumCover to prevent continual scaling
-			albumCover = display.scaleToAlbumCoverDisplaySize(albumCover);
+			albumCover = Display.scaleToAlbumCoverDisplaySize(albumCover);
+		}
+		
+		if (albumCover != null) {
+			albumArtCache.put(key, AlbumArt.of(albumCover));
 		}
 		
 		return albumCover;
 	}
 	
+	/** 
+	 * Loads the album cover at <b>url</b> scaled to the size used in display without
+	 * blocking: the image is downloaded on an I/O thread, then decoded near its display 
+	 * size and scaled on an <i>AlbumArtDecoder</i> worker. Album covers already loaded
+	 * complete immediately from <b>albumArtCache</b>.
+	 * 
+	 * @param url The URL to load the album cover from.
+	 * @return A <i>CompletableFuture</i> of the album cover, which is null if the image
+	 * couldn't be decoded.
+	 */
+	public static CompletableFuture<AlbumArt> loadAlbumArtAsync (String url) {
+		
+		int size = albumCoverSize();
+		String key = AlbumArtCache.key(url, size);
+		
+		AlbumArt cached = albumArtCache.get(key);
+		if (cached != null) {
+			return CompletableFuture.completedFuture(cached);
+		}
+		
+		return spotifyAsyncAPI.loadAlbumCoverBytes(url).thenApplyAsync(imageBytes -> {
+			
+			BufferedImage albumCover = AlbumArtDecoder.decode(imageBytes, size);
+			if (albumCover == null) {
+				return null;
+			}
+			
+			// only cached on disk once known to decode
+			spotifyAPI.cacheAlbumCoverBytes(url, imageBytes);
+			
+			AlbumArt albumArt = AlbumArt.of(
+					Display.scaleToAlbumCoverDisplaySize(albumCover));
+			albumArtCache.put(key, albumArt);
+			
+			return albumArt;
+			
+		}, albumArtDecoder.getExecutor());
+	}
+	
+	/** 
+	 * Sets the album cover of <b>song</b> right away if it's already loaded, and
+	 * otherwise loads it in the background, so <b>song</b> can be displayed with a
+	 * placeholder meanwhile. Once loaded, the album cover is set to <b>song</b> if it's
+	 * still <b>currentSong</b>, and displayed if the song is still on <b>display</b>.
+	 * 
+	 * @param song The <i>Song</i> to load the album cover of.
+	 */
+	private static void attachAlbumArt (Song song) {
+		
+		String url = song.getAlbumURL(albumCoverSize());
+		if (url == null) {
+			return;
+		}
+		
+		CompletableFuture<AlbumArt> albumArt = loadAlbumArtAsync(url);
+		
+		if (albumArt.isDone() && !albumArt.isCompletedExceptionally()) {
+			song.setAlbumArt(albumArt.join());
+			return;
+		}
+		
+		albumArt.whenComplete((art, ex) -> {
+			if (ex != null) {
+				System.out.println("Could not load album cover: " + ex.getMessage());
+				return;
+			} else if (art == null) {
+				return;
+			}
+			
+			lock.lock();
+			try {
+				if (currentSong == song) {
+					song.setAlbumArt(art);
+					publishCurrentSong();
+				}
+			} finally {
+				lock.unlock();
+			}
+			display.displayAlbumArt(song.getAlbumURL(), art);
+		});
+	}
+	
+	/** Returns the width and height in pixels album covers are shown at on 
+	 * <b>display</b>, which decides the size of the album cover downloaded. */
+	private static int albumCoverSize () {
+		return Display.getAlbumCoverDisplaySize();
+	}
+	
+	/** Returns the cache of the album covers loaded by {@code loadAlbumCover()}. */
+	public static AlbumArtCache getAlbumArtCache () {
+		return albumArtCache;
+	}
+	
 	public static void playPreview() {
 		try {
 			if ( (preview == null) ||
@@ -474,7 +850,7 @@ public class PlayerLogic implements PlayerActionConstants {
 			preview.playPreview();
 			
 		} catch (RuntimeException re) {
-			JOptionPane.showMessageDialog(null, "Line was broken. Please try again.",
+			showMessage("Line was broken. Please try again.",
     			"Connection Broke", 0);
         	playerState = PlayerLogic.STOPPED;
         	re.printStackTrace();
@@ -538,9 +914,34 @@ public class PlayerLogic implements PlayerActionConstants {
 	}
 	
 	public static void showNoActiveDevicesAlert() {
-		JOptionPane.showMessageDialog(null, "The Spotify application must"
+		showMessage("The Spotify application must"
 				+ " be open, or another device's Spotify \napplication must"
 				+ " be active (played a song recently) to play a song.", 
 				"No Active Devices", JOptionPane.OK_OPTION);
 	}
+	
+	public static void showRateLimitedAlert(RateLimitedException e) {
+		showMessage("Spotify is limiting how many requests"
+				+ " can be made. Try again in " + e.getRetryAfter() + " seconds.", 
+				"Too Many Requests", JOptionPane.WARNING_MESSAGE);
+	}
+	
+	/** 
+	 * Shows a message dialog on the Event Dispatch Thread, as player actions and 
+	 * searches run on I/O threads. Called on the Event Dispatch Thread, it shows the
+	 * dialog right away.
+	 * 
+	 * @param message The message of the dialog.
+	 * @param title The title of the dialog.
+	 * @param messageType The <i>JOptionPane</i> message type.
+	 */
+	private static void showMessage(String message, String title, int messageType) {
+		if (SwingUtilities.isEventDispatchThread()) {
+			JOptionPane.showMessageDialog(null, message, title, messageType);
+		} else {
+			SwingUtilities.invokeLater(() -> {
+				JOptionPane.showMessageDialog(null, message, title, messageType);
+			});
+		}
+	}
 }
\ No newline at end of file
@@ -0,0 +1,181 @@
+package logic.song;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.JsonPath;
+
+import net.minidev.json.JSONArray;
+
+/**
+ * The compiled form of a <b>baseJSONPath</b> and its field keys, used to initialize
+ * <i>Song</i> objects from a parsed JSON. Every <i>JSONPath</i> expression is compiled
+ * once, when the plan is created, and is then read from the one
+ * <i>DocumentContext</i> of each response: the base path once, each field path
+ * relative to each song object found at the base path (iterating an array instead of
+ * building an indexed path for every song), and paths starting with '$' once per
+ * response for all songs. Parsing therefore scales linearly with the number of songs.
+ *
+ * @see JSONPreset#getExtractionPlan()
+ */
+public class JSONExtractionPlan {
+
+	/** The compiled path to the song object or array of song objects. */
+	private final JsonPath basePath;
+
+	/** The field keys of <b>jsonPathsMap</b> in <i>Song</i> to initialize. */
+	private final String[] fields;
+
+	/** The compiled path of each field, relative to a song object unless the field is
+	 * read from the document root. */
+	private final JsonPath[] fieldPaths;
+
+	/** The setter of each field on <i>Song</i>. */
+	private final BiConsumer<Song, Object>[] binders;
+
+	/** Is true for each field whose <i>JSONPath</i> begins with '$', which is read from
+	 * the document root rather than from the song object. */
+	private final boolean[] fromRoot;
+
+	/** The version of <b>jsonPathsMap</b> in <i>Song</i> the paths were compiled from. */
+	private final int jsonPathsVersion;
+
+	/**
+	 * Compiles the <b>baseJSONPath</b> and the <i>JSONPath</i> expression of each of
+	 * the <b>fields</b> from the current <b>jsonPathsMap</b> of <i>Song</i>.
+	 *
+	 * @param baseJSONPath The path to the song object or array of song objects.
+	 * @param fields The field keys of <b>jsonPathsMap</b> to initialize.
+	 */
+	public JSONExtractionPlan(String baseJSONPath, String... fields) {
+
+		Map<String, String> jsonPaths = Song.getJsonPathsMap();
+
+		this.jsonPathsVersion = Song.getJsonPathsVersion();
+		this.basePath = JsonPath.compile(normalizeBasePath(baseJSONPath));
+		this.fields = fields.clone();
+		this.fieldPaths = new JsonPath[fields.length];
+		this.fromRoot = new boolean[fields.length];
+
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		BiConsumer<Song, Object>[] binders = new BiConsumer[fields.length];
+		this.binders = binders;
+
+		for (int i = 0; i < fields.length; i++) {
+			String path = jsonPaths.get(fields[i]);
+			if (path == null) {
+				throw new IllegalArgumentException("No JSONPath for field \""
+						+ fields[i] + "\".");
+			}
+
+			// doesn't use baseJSONPath if '$' at beginning of jsonPaths value
+			fromRoot[i] = path.charAt(0) == '$';
+			fieldPaths[i] = JsonPath.compile(fromRoot[i] ? path : "$" + path);
+			binders[i] = Song.getBinder(fields[i]);
+		}
+	}
+
+	/**
+	 * Adds "$." to the beginning of <b>baseJSONPath</b> if not already there.
+	 *
+	 * @param baseJSONPath The base path as passed in.
+	 * @return A <i>JSONPath</i> expression starting from the root.
+	 */
+	private static String normalizeBasePath(String baseJSONPath) {
+		if (baseJSONPath.length() <= 1) {
+			return "$";
+		} else if (baseJSONPath.startsWith("$.")) {
+			return baseJSONPath;
+		} else if (baseJSONPath.charAt(0) == '$') {
+			return "$." + baseJSONPath.substring(1);
+		} else if (baseJSONPath.charAt(0) == '.') {
+			return "$" + baseJSONPath;
+		}
+		return "$." + baseJSONPath;
+	}
+
+	/**
+	 * Returns true if <b>jsonPathsMap</b> in <i>Song</i> hasn't changed since this plan
+	 * was compiled.
+	 *
+	 * @return If the compiled paths are current.
+	 */
+	boolean isCurrent() {
+		return jsonPathsVersion == Song.getJsonPathsVersion();
+	}
+
+	/**
+	 * Initializes a <i>Song</i> for each song object at the base path of <b>doc</b>.
+	 *
+	 * @param doc The parsed JSON response.
+	 * @return The <i>Song</i> objects in the order they are in the JSON.
+	 */
+	public Song[] extract(DocumentContext doc) {
+
+		Object root = doc.json();
+		if (root instanceof Map && ((Map<?, ?>) root).isEmpty()) {
+			throw new JSONSongException("Empty JSON String: {}");
+		}
+
+		// gets the song object(s) at the base path
+		Object base = doc.read(basePath);
+		Object[] items;
+
+		if (base == null) {
+			throw new JSONSongException("No song information at baseJSONPath.",
+					doc.jsonString());
+
+		} else if (base instanceof JSONArray) {
+			items = ((JSONArray) base).toArray();
+
+		} else if (base instanceof Map) { // JSONObject in the JSONPath library
+			items = new Object[] {base};
+
+		} else {
+			items = new Object[0];
+		}
+
+		if (items.length == 0) {
+			throw new JSONSongException("No songs found.", doc.jsonString());
+		}
+
+		// reads the fields shared by all songs once
+		Object[] rootValues = new Object[fields.length];
+		for (int f = 0; f < fields.length; f++) {
+			if (fromRoot[f]) {
+				try {
+					rootValues[f] = doc.read(fieldPaths[f]);
+				} catch (Exception e) {
+					throw new JSONSongException("Couldn't parse " + fields[f] +
+							" of track", doc.jsonString(), e);
+				}
+			}
+		}
+
+		Configuration conf = doc.configuration();
+		Song[] songs = new Song[items.length];
+
+		for (int i = 0; i < items.length; i++) {
+			Song song = new Song();
+
+			for (int f = 0; f < fields.length; f++) {
+				try {
+					Object value = fromRoot[f] ? rootValues[f] :
+							fieldPaths[f].read(items[i], conf);
+					binders[f].accept(song, value);
+				} catch (JSONSongException jse) {
+					throw jse;
+				} catch (Exception e) {
+					throw new JSONSongException("Couldn't parse " + fields[f] +
+							" of track", doc.jsonString(), e);
+				}
+			}
+
+			songs[i] = song;
+		}
+
+		return songs;
+	}
+}
@@ -10,11 +10,14 @@ public class JSONPreset {
 	private String[] jsonPathKeys;
 	private String baseJSONPath;
 	
+	/** The compiled paths of this preset, created on first use. */
+	private volatile JSONExtractionPlan extractionPlan;
+	
 	private static ArrayList<JSONPreset> presets = new ArrayList<>();
 	
 	static {
 		List<String> defaultList = List.of(new String[] {"name", "artists", "albumURL",
-				"albumURI", "trackNumber"});
+				"albumImages", "albumURI", "trackNumber"});
 		
 		// Search preset
 		List<String> searchList = new ArrayList<>(defaultList);
@@ -80,6 +83,7 @@ public class JSONPreset {
 
 	public void setJsonPathKeys(String... jsonPathKeys) {
 		this.jsonPathKeys = getDeepCopy(jsonPathKeys);
+		this.extractionPlan = null;
 	}
 
 	public String getBaseJSONPath() {
@@ -88,6 +92,23 @@ public class JSONPreset {
 
 	public void setBaseJSONPath(String baseJSONPath) {
 		this.baseJSONPath = baseJSONPath;
+		this.extractionPlan = null;
+	}
+	
+	/** 
+	 * Returns the <i>JSONExtractionPlan</i> of this preset's base path and keys, 
+	 * compiling it on first use and again only if the preset or the <i>Song</i>
+	 * JSONPaths change.
+	 * 
+	 * @return The compiled plan.
+	 */
+	public JSONExtractionPlan getExtractionPlan() {
+		JSONExtractionPlan plan = extractionPlan;
+		if (plan == null || !plan.isCurrent()) {
+			plan = new JSONExtractionPlan(baseJSONPath, jsonPathKeys);
+			extractionPlan = plan;
+		}
+		return plan;
 	}
 	
 	private String[] getDeepCopy(String[] array) {
@@ -1,19 +1,23 @@
 package logic.song;
-import java.awt.Graphics;
 import java.awt.image.BufferedImage;
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.TreeSet;
+import java.util.function.BiConsumer;
 import java.util.function.Predicate;
 
+import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
 
+import logic.albumart.AlbumArt;
+import logic.albumart.AlbumArtResolver;
+import logic.albumart.AlbumImage;
 import logic.spotifyapi.SpotifyAPI;
 import net.minidev.json.JSONArray;
 
@@ -33,12 +37,14 @@ public class Song {
 	
 	/** The name of the album. */
 	private String albumName;
-	/** The album cover as a BufferedImage. */
-	private BufferedImage albumCover;
+	/** The album cover, shared with the copies and snapshots of this song. */
+	private AlbumArt albumArt;
 	/** The URI to begin playing the album. */
 	private String albumURI;
 	/** The URL to retrieve the album cover. */
 	private String albumURL;
+	/** The sizes the album cover is available in. */
+	private List<AlbumImage> albumImages = Collections.emptyList();
 	
 	/** The track number of the playlist/album. */
 	private int trackNumber;
@@ -72,6 +78,33 @@ public class Song {
 	 * */
 	private static Map<String, String> jsonPathsMap = new HashMap<>();
 	
+	/** Incremented whenever <b>jsonPathsMap</b> changes, so compiled 
+	 * <i>JSONExtractionPlan</i>s know to recompile. */
+	private static int jsonPathsVersion;
+	
+	/** The setter of each field key of <b>jsonPathsMap</b>, taking the value read by 
+	 * its <i>JSONPath</i>. Any field key added to <b>jsonPathsMap</b> needs a binder 
+	 * here to be initialized by {@code Song.initializeFromJSON()}. */
+	private static final Map<String, BiConsumer<Song, Object>> BINDERS = new HashMap<>();
+	
+	static {
+		BINDERS.put("name", (s, v) -> s.setName((String) v));
+		BINDERS.put("artists", (s, v) -> s.setArtists(artistNames((JSONArray) v)));
+		BINDERS.put("albumName", (s, v) -> s.setAlbumName((String) v));
+		BINDERS.put("albumURL", (s, v) -> s.setAlbumURL((String) v));
+		BINDERS.put("albumImages", 
+				(s, v) -> s.setAlbumImages(AlbumImage.listFromJSON((List<?>) v)));
+		BINDERS.put("previewURL", (s, v) -> s.setPreviewURL((String) v));
+		BINDERS.put("ID", (s, v) -> s.setID((String) v));
+		BINDERS.put("duration", (s, v) -> s.setDuration(toInt(v)));
+		BINDERS.put("progress", (s, v) -> s.setProgress(toInt(v)));
+		BINDERS.put("timestamp", (s, v) -> s.setTimestamp(toLong(v)));
+		BINDERS.put("playing", (s, v) -> s.setPlaying(Boolean.TRUE.equals(v)));
+		BINDERS.put("contextURI", (s, v) -> s.setContextURI((String) v));
+		BINDERS.put("albumURI", (s, v) -> s.setAlbumURI((String) v));
+		BINDERS.put("trackNumber", (s, v) -> s.setTrackNumber(toInt(v)));
+	}
+	
 	static {
 		/*
 		 *  Creates a Map to get keys from returned JSON's using a JSONPath expression, 
@@ -82,6 +115,7 @@ public class Song {
 		jsonPaths.put("artists", ".artists[*]");
 		jsonPaths.put("albumName", ".album.name");
 		jsonPaths.put("albumURL", ".album.images[0].url");
+		jsonPaths.put("albumImages", ".album.images");
 		jsonPaths.put("previewURL", ".preview_url");
 		jsonPaths.put("ID", ".id");
 		jsonPaths.put("duration", ".duration_ms");
@@ -162,7 +196,7 @@ public class Song {
 		this(name, artists, albumURL, previewURL, albumName, ID);
 		
 		this.albumURI = albumURI;
-		this.albumCover = albumCover;
+		this.albumArt = AlbumArt.of(albumCover);
 		this.duration = duration;
 		this.progress = progress;
 		this.timestamp = timeStamp;
@@ -213,23 +247,46 @@ public class Song {
 		this.albumURL = url;
 	}
 	
+	/** Returns the URL of the smallest size of the album cover that is at least 
+	 * <b>targetSize</b> pixels wide and high, or <b>albumURL</b> if the sizes aren't
+	 * known.
+	 * 
+	 * @param targetSize The width and height the album cover is shown at.
+	 * @return The URL to retrieve the album cover.
+	 * @see AlbumArtResolver
+	 */
+	public String getAlbumURL (int targetSize) {
+		return AlbumArtResolver.resolveURL(albumImages, albumURL, targetSize);
+	}
+	
+	// Album images
+	public List<AlbumImage> getAlbumImages() {
+		return albumImages;
+	}
+	public void setAlbumImages(List<AlbumImage> albumImages) {
+		this.albumImages = (albumImages != null) ? 
+				Collections.unmodifiableList(albumImages) : Collections.emptyList();
+	}
+	
 	// Album cover
+	/** Returns a copy of the album cover, which can be modified. Use 
+	 * {@code getAlbumArt()} to draw the album cover without copying it. */
 	public BufferedImage getAlbumCover() {
-		if (albumCover != null) {
-			BufferedImage bufImg = new BufferedImage(albumCover.getWidth(), albumCover.getHeight(),
-					BufferedImage.TYPE_INT_RGB);
-			
-			Graphics g = bufImg.getGraphics();
-			g.drawImage(albumCover, 0, 0, null);
-			g.dispose();
-			
-			return bufImg;
+		if (albumArt != null) {
+			return albumArt.getCopy();
 		} else {
 			return null;
 		}
 	}
+	/** Sets the album cover, which must not be modified afterwards. */
 	public void setAlbumCover(BufferedImage bi) {
-		this.albumCover = bi;
+		this.albumArt = AlbumArt.of(bi);
+	}
+	public AlbumArt getAlbumArt() {
+		return albumArt;
+	}
+	public void setAlbumArt(AlbumArt albumArt) {
+		this.albumArt = albumArt;
 	}
 
 	// Album URI
@@ -311,6 +368,11 @@ public class Song {
 	
 	public static void setJsonPaths (Map<String, String> jsonPaths) {
 		jsonPathsMap.putAll(jsonPaths);
+		jsonPathsVersion++;
+	}
+	
+	static int getJsonPathsVersion() {
+		return jsonPathsVersion;
 	}
 	
 	
@@ -332,6 +394,7 @@ public class Song {
 	 */
 	public static void putJSONFieldPaths(Map<String, String> m) {
 		jsonPathsMap.putAll(m);
+		jsonPathsVersion++;
 	}
 
 	/** Sets a field of the <i>Song</i> object by passing the <b>field</b> name as a 
@@ -340,103 +403,113 @@ public class Song {
 	 * @param field The field to set as a String.
 	 * @param value The value to set to the field.
 	 */
-	private void set (String field, Object value) {
-	        	
-    	try {
-    		Field f = this.getClass().getDeclaredField(field);
-    		
-			Method method = this.getClass().getDeclaredMethod(
-					"set" + Character.toUpperCase(field.charAt(0)) + field.substring(1),
-					f.getType() );
+	void set (String field, Object value) {
+		getBinder(field).accept(this, value);
+	}
+	
+	/** Returns the setter of the <b>field</b> key, which converts the value read by 
+	 * its <i>JSONPath</i> to the type of the field.
+	 * 
+	 * @param field The field key of <b>jsonPathsMap</b>.
+	 * @return The binder of the field.
+	 * @throws IllegalArgumentException If <i>Song</i> has no such field.
+	 */
+	static BiConsumer<Song, Object> getBinder (String field) {
+		BiConsumer<Song, Object> binder = BINDERS.get(field);
+		if (binder == null) {
+			throw new IllegalArgumentException("No Song field \"" + field + "\".");
+		}
+		return binder;
+	}
+	
+	/** JSON numbers are read as an Integer, Long or Double depending on their size. */
+	private static int toInt (Object value) {
+		return (value == null) ? 0 : ((Number) value).intValue();
+	}
+	
+	private static long toLong (Object value) {
+		return (value == null) ? 0 : ((Number) value).longValue();
+	}
+	
+	/**
+	 * Returns the "name" of each artist object in <b>artistsArray</b>.
+	 *
+	 * @param artistsArray The JSONArray of artist objects.
+	 * @return The artist names in order.
+	 */
+	private static LinkedHashSet<String> artistNames (JSONArray artistsArray) {
+		LinkedHashSet<String> artists = new LinkedHashSet<String>();
+		
+		for (Object artist : artistsArray) {
+			Map<?, ?> artistMap = (Map<?, ?>) artist;
 			
-			if (f.getType().isPrimitive()) {
-				method.invoke(this, value); //primitive classes don't cast from Wrappers
-			} else {
-				method.invoke(this, f.getType().cast(value));
+			if (artistMap.containsKey("name")) {
+				artists.add(artistMap.get("name").toString());
 			}
-			
-		} catch (NoSuchFieldException | NoSuchMethodException | SecurityException e) {
-			e.printStackTrace();
-		} catch (IllegalAccessException | IllegalArgumentException 
-				| InvocationTargetException e) {
-			e.printStackTrace();
-		} catch (ClassCastException cce) {
-			cce.printStackTrace();
-		} catch (Exception e) {
-			e.printStackTrace();
 		}
+		
+		return artists;
 	}
 	
-	/** Returns another song object with all the data of this one. 
+	/** Returns another song object with all the data of this one. The immutable
+	 * album cover is shared rather than copied.
 	 * 
 	 * @return A deep copy of this Song instance.
 	 */
 	public Song getDeepCopy () {
 		
 		Song copy = new Song(this.getName(), this.getArtists(), this.getAlbumName(), 
-				this.getAlbumURL(), this.getAlbumURI(), this.getAlbumCover(),
+				this.getAlbumURL(), this.getAlbumURI(), null,
 				this.getPreviewURL(), this.getID(), this.getDuration(), 
 				this.getProgress(), this.getTimestamp(), this.isPlaying(),
 				this.getContextURI(), this.getTrackNumber());
+		copy.setAlbumArt(albumArt);
+		copy.setAlbumImages(albumImages);
 		
 		return copy;
 	}
 	
-	/** Equates to true if every field of the song object equates in all getter 
-	 * methods, except for albumCover.
+	/** Returns an immutable <i>SongSnapshot</i> of the data of this song, sharing its
+	 * album cover, which can be passed between threads without copying.
+	 * 
+	 * @return A snapshot of this Song instance.
+	 */
+	public SongSnapshot toSnapshot () {
+		return new SongSnapshot(this);
+	}
+	
+	/** Equates to true if every field of the song object equates, except for 
+	 * albumCover.
 	 */
 	@Override
 	public boolean equals(Object o) {
 		
-		if ( !(o instanceof Song) ) {
-			return false;
-		} else {
-			Song otherSong = (Song) o;
-			
-			String[] exceptionFields = {"albumCover", "jsonPathsMap"};
-			
-			for (Field field : this.getClass().getDeclaredFields()) {
-				
-				// doesn't compare the exceptionFields[]
-				for (String exField : exceptionFields) {
-					if (field.getName().equals(exField)) {
-						continue;
-					}
-				}
-				
-				// compares the rest of the fields using their get methods
-				try {
-					
-					final String getOrIs = (!field.getType().isPrimitive()) ? "get" : "is";
-		    		
-					Method method = this.getClass().getDeclaredMethod(
-							getOrIs + Character.toUpperCase(field.getName().charAt(0))
-								+ field.getName().substring(1));
-					Object thisSongValue = method.invoke(this);
-					
-					method = otherSong.getClass().getDeclaredMethod(
-							getOrIs + Character.toUpperCase(field.getName().charAt(0))
-								+ field.getName().substring(1));
-					Object otherSongValue = method.invoke(otherSong);
-					
-					if ( !(thisSongValue == null && otherSongValue == null) &&
-							((thisSongValue == null ^ otherSongValue == null) ||
-							!thisSongValue.equals(otherSongValue)) ) {
-						return false;
-					}
-					
-				} catch (NoSuchMethodException | SecurityException e) {
-					e.printStackTrace();
-				} catch (IllegalAccessException | IllegalArgumentException 
-						| InvocationTargetException e) {
-					e.printStackTrace();
-				} catch (Exception e) {
-					e.printStackTrace();
-				}
-			}
-			
+		if (this == o) {
 			return true;
+		} else if ( !(o instanceof Song) ) {
+			return false;
 		}
+		
+		Song other = (Song) o;
+		
+		return trackNumber == other.trackNumber
+				&& duration == other.duration
+				&& progress == other.progress
+				&& timestamp == other.timestamp
+				&& playing == other.playing
+				&& Objects.equals(ID, other.ID)
+				&& Objects.equals(name, other.name)
+				&& Objects.equals(artists, other.artists)
+				&& Objects.equals(albumName, other.albumName)
+				&& Objects.equals(albumURI, other.albumURI)
+				&& Objects.equals(albumURL, other.albumURL)
+				&& Objects.equals(previewURL, other.previewURL)
+				&& Objects.equals(contextURI, other.contextURI);
+	}
+	
+	@Override
+	public int hashCode() {
+		return Objects.hash(ID, name, albumURI, progress, timestamp, playing);
 	}
 	
 	/** 
@@ -488,113 +561,48 @@ public class Song {
 	public static Song[] initializeFromJSON (String json, String baseJSONPath,
 			String... fields) {
 		
-		// initializes songs[]
-		Song[] songs = new Song[0];
-		
 		if (json.equals("{}")) {
 			throw new JSONSongException("Empty JSON String: " + json);
 		}
 		
-		// adds "$." if not already there
-		if (!baseJSONPath.startsWith("$.")) {
-			switch (baseJSONPath.length()) {
-				case 0: 
-				case 1: baseJSONPath = "$"; break;
-				default: 
-					if (baseJSONPath.charAt(0) != '$') {
-						baseJSONPath = "$".concat(baseJSONPath);
-					}
-					if (baseJSONPath.charAt(1) != '.') {
-						baseJSONPath = baseJSONPath.charAt(0) + '.' + baseJSONPath.substring(1);
-					}
-			}
-		}
-		
-		int songCount = 0;
-		
-		// gets the baseJSONPath class to determine songCount
-		Object o = JsonPath.read(json, baseJSONPath);
-		if (o == null) {
-			throw new JSONSongException("No song information at baseJSONPath.", json);
-			
-		} else if (o instanceof JSONArray) {
-			songCount = ((JSONArray) o).size();
-			
-			baseJSONPath = baseJSONPath.concat("[0]");
-			
-		} else if (o instanceof LinkedHashMap) { //JSONObject in the JSONPath library
-			songCount = 1;
-		}
-		
-		// initialize songs[] with correct count
-		songs = new Song[songCount];
-		for (int i = 0; i < songs.length; i++) {
-			songs[i] = new Song();
-		}
-		
-		int songIndex = 0;
-		while (songIndex < songCount) {
-			
-			// adds index to path end if not the first index
-			if (songIndex != 0) {
-				baseJSONPath = baseJSONPath.substring(0, baseJSONPath.length() - 3)
-						.concat(String.valueOf(songIndex))
-						.concat("]");
-			}
-			
-			for (String field : fields) {
-				try {
-					if (field != "artists") {
-						
-						// doesn't use baseJSONPath if '$' at beginning of jsonPaths value
-						String jsonPath = (jsonPathsMap.get(field).charAt(0) == '$') ?
-								jsonPathsMap.get(field) : 
-									baseJSONPath.concat(jsonPathsMap.get(field));
-						
-						Object value = JsonPath.parse(json).read(jsonPath);
-						songs[songIndex].set(field, value);
-					
-					// different parsing for artists
-					} else {
-						LinkedHashSet<String> artists = new LinkedHashSet<String>();
-						
-						// get the JSONArray of artists
-						JSONArray artistsArray = JsonPath.read( json, 
-								baseJSONPath.concat(jsonPathsMap.get(field)) );
-	
-						for (Object artist : artistsArray) {
-							LinkedHashMap lhm = (LinkedHashMap) artist;
-							
-							if (lhm.containsKey("name")) {
-								artists.add(lhm.get("name").toString());
-							}
-						}
-						
-						songs[songIndex].setArtists(artists);
-					}
-				} catch (Exception e) {
-					throw new JSONSongException("Couldn't parse " + field + 
-							" of track", json, e);
-				}
-			}
-			
-			songIndex++;
-		}
-		
-		if (songCount == 0) {
-			throw new JSONSongException("No songs found.", json);
-		}
+		return initializeFromJSON(JsonPath.parse(json), baseJSONPath, fields);
+	}
+	
+	/** 
+	 * Initializes <i>Song</i> objects from a JSON that has already been parsed into the
+	 * <i>DocumentContext</i> <b>doc</b>, reading every field from that one document
+	 * instead of parsing the JSON again for each. Works the same as 
+	 * {@code initializeFromJSON(String, String, String...)} otherwise.
+	 * 
+	 * @param doc The parsed JSON to read the data from.
+	 * @param baseJSONPath The path to begin each parsing path for song data.
+	 * @param fields The field keys of <b>jsonPathsMap</b> to initialize.
+	 * @return Returns An array of <i>Song</i> objects.
+	 */
+	public static Song[] initializeFromJSON (DocumentContext doc, String baseJSONPath,
+			String... fields) {
+		return new JSONExtractionPlan(baseJSONPath, fields).extract(doc);
+	}
+	
+	public static Song[] initializeFromJSON (String json, JSONPreset preset) {
 		
-		// marks song after last song initialized to null in array if more size
-		if (songs.length > songCount && songCount == 0) {
-			songs[songCount] = null;
+		if (json.equals("{}")) {
+			throw new JSONSongException("Empty JSON String: " + json);
 		}
 		
-		return songs;
+		return initializeFromJSON(JsonPath.parse(json), preset);
 	}
 	
-	public static Song[] initializeFromJSON (String json, JSONPreset preset) {
-		return initializeFromJSON(json, preset.getBaseJSONPath(), 
-				preset.getJsonPathKeys());
+	/** 
+	 * Initializes <i>Song</i> objects from the parsed JSON <b>doc</b> with the 
+	 * compiled <i>JSONExtractionPlan</i> of <b>preset</b>, which is reused for every 
+	 * response of the preset.
+	 * 
+	 * @param doc The parsed JSON to read the data from.
+	 * @param preset The <i>JSONPreset</i> of the response.
+	 * @return Returns An array of <i>Song</i> objects.
+	 */
+	public static Song[] initializeFromJSON (DocumentContext doc, JSONPreset preset) {
+		return preset.getExtractionPlan().extract(doc);
 	}
 }
@@ -0,0 +1,165 @@
+package logic.song;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import logic.albumart.AlbumArt;
+import logic.albumart.AlbumArtResolver;
+import logic.albumart.AlbumImage;
+
+/**
+ * An immutable copy of a <i>Song</i>'s data at one moment, which can be handed to the
+ * Event Dispatch Thread or kept in caches without being copied again. Its album cover
+ * is the same shared <i>AlbumArt</i> handle as the <i>Song</i> it was taken from, and
+ * its getters return the values themselves rather than copies.
+ *
+ * @see Song#toSnapshot()
+ */
+public final class SongSnapshot {
+
+	private final String name;
+	private final Set<String> artists;
+	private final String albumName;
+	private final AlbumArt albumArt;
+	private final String albumURI;
+	private final String albumURL;
+	private final List<AlbumImage> albumImages;
+	private final int trackNumber;
+	private final String previewURL;
+	private final String ID;
+	private final int duration;
+	private final int progress;
+	private final long timestamp;
+	private final boolean playing;
+	private final String contextURI;
+
+	/**
+	 * Copies the fields of <b>song</b>, sharing its <i>AlbumArt</i>.
+	 *
+	 * @param song The <i>Song</i> to take the snapshot of.
+	 */
+	SongSnapshot(Song song) {
+		LinkedHashSet<String> artists = song.getArtists();
+
+		this.name = song.getName();
+		this.artists = (artists != null) ? Collections.unmodifiableSet(artists) :
+				Collections.emptySet();
+		this.albumName = song.getAlbumName();
+		this.albumArt = song.getAlbumArt();
+		this.albumURI = song.getAlbumURI();
+		this.albumURL = song.getAlbumURL();
+		this.albumImages = song.getAlbumImages();
+		this.trackNumber = song.getTrackNumber();
+		this.previewURL = song.getPreviewURL();
+		this.ID = song.getID();
+		this.duration = song.getDuration();
+		this.progress = song.getProgress();
+		this.timestamp = song.getTimestamp();
+		this.playing = song.isPlaying();
+		this.contextURI = song.getContextURI();
+	}
+
+	private SongSnapshot(SongSnapshot other, AlbumArt albumArt) {
+		this.name = other.name;
+		this.artists = other.artists;
+		this.albumName = other.albumName;
+		this.albumArt = albumArt;
+		this.albumURI = other.albumURI;
+		this.albumURL = other.albumURL;
+		this.albumImages = other.albumImages;
+		this.trackNumber = other.trackNumber;
+		this.previewURL = other.previewURL;
+		this.ID = other.ID;
+		this.duration = other.duration;
+		this.progress = other.progress;
+		this.timestamp = other.timestamp;
+		this.playing = other.playing;
+		this.contextURI = other.contextURI;
+	}
+
+	/**
+	 * Returns a snapshot with the same data as this one but the album cover
+	 * <b>albumArt</b>.
+	 *
+	 * @param albumArt The album cover of the new snapshot (can be null).
+	 * @return The new <i>SongSnapshot</i>.
+	 */
+	public SongSnapshot withAlbumArt(AlbumArt albumArt) {
+		return new SongSnapshot(this, albumArt);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/** Returns the artists, which is an empty set if the song has none. */
+	public Set<String> getArtists() {
+		return artists;
+	}
+
+	/** Returns the artists separated by commas. */
+	public String getArtistsText() {
+		return String.join(", ", artists);
+	}
+
+	public String getAlbumName() {
+		return albumName;
+	}
+
+	/** Returns the shared album cover (can be null). */
+	public AlbumArt getAlbumArt() {
+		return albumArt;
+	}
+
+	public String getAlbumURI() {
+		return albumURI;
+	}
+
+	public String getAlbumURL() {
+		return albumURL;
+	}
+
+	/** Returns the URL of the size of the album cover to show at <b>targetSize</b>. */
+	public String getAlbumURL(int targetSize) {
+		return AlbumArtResolver.resolveURL(albumImages, albumURL, targetSize);
+	}
+
+	/** Returns the sizes the album cover is available in (unmodifiable). */
+	public List<AlbumImage> getAlbumImages() {
+		return albumImages;
+	}
+
+	public int getTrackNumber() {
+		return trackNumber;
+	}
+
+	public String getPreviewURL() {
+		return previewURL;
+	}
+
+	public String getID() {
+		return ID;
+	}
+
+	public int getDuration() {
+		return duration;
+	}
+
+	public int getProgress() {
+		return progress;
+	}
+
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public boolean isPlaying() {
+		return playing;
+	}
+
+	public String getContextURI() {
+		return contextURI;
+	}
+}
@@ -0,0 +1,135 @@
+package logic.spotifyapi;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The default <i>SpotifyTransport</i>, built on <i>java.net.http.HttpClient</i>. It
+ * negotiates HTTP/2 so that the polling GETs and player PUTs multiplex over one kept
+ * alive connection per host, limits the connection pool, and can open those
+ * connections at startup with {@code prewarm()}.
+ *
+ * @see SpotifyTransport
+ */
+public class HttpClientTransport implements SpotifyTransport {
+
+	/** The most HTTP/1.1 connections kept idle in the pool (HTTP/2 uses one per host). */
+	private static final int MAX_POOLED_CONNECTIONS = 8;
+
+	/** How long idle connections are kept alive in seconds. */
+	private static final int KEEP_ALIVE_SECONDS = 300;
+
+	/** How long to wait to establish a connection. */
+	private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+
+	/** The number of threads the client handles responses on. */
+	private static final int CLIENT_THREADS = 2;
+
+	static {
+		// The pool limits are only read by the JDK when its first client is created
+		if (System.getProperty("jdk.httpclient.connectionPoolSize") == null) {
+			System.setProperty("jdk.httpclient.connectionPoolSize",
+					String.valueOf(MAX_POOLED_CONNECTIONS));
+		}
+		if (System.getProperty("jdk.httpclient.keepalive.timeout") == null) {
+			System.setProperty("jdk.httpclient.keepalive.timeout",
+					String.valueOf(KEEP_ALIVE_SECONDS));
+		}
+	}
+
+	/** The client whose connections are shared by all requests. */
+	private final HttpClient client;
+
+	/**
+	 * Creates a client that prefers HTTP/2 and handles responses on a small pool of
+	 * daemon threads.
+	 */
+	public HttpClientTransport() {
+
+		AtomicInteger count = new AtomicInteger();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(CLIENT_THREADS,
+				CLIENT_THREADS, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+					Thread t = new Thread(r, "spotify-http-" + count.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				});
+		executor.allowCoreThreadTimeOut(true);
+
+		this.client = createClient(executor);
+	}
+
+	private static HttpClient createClient(ExecutorService executor) {
+		return HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_2)
+				.connectTimeout(CONNECT_TIMEOUT)
+				.followRedirects(HttpClient.Redirect.NORMAL)
+				.executor(executor)
+				.build();
+	}
+
+	@Override
+	public SpotifyResponse send(String method, String url, Map<String, String> headers,
+			String body, Duration timeout) {
+
+		if (method == null) {
+			throw new NullPointerException("String \"method\" cannot be null.");
+		} else if (url == null) {
+			throw new NullPointerException("String \"url\" is null.");
+		}
+
+		HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+				.method(method.toUpperCase(), (body == null) ?
+						BodyPublishers.noBody() : BodyPublishers.ofString(body));
+
+		if (timeout != null) {
+			builder.timeout(timeout);
+		}
+		if (headers != null) {
+			headers.forEach(builder::header);
+		}
+
+		try {
+			HttpResponse<byte[]> response = client.send(builder.build(),
+					BodyHandlers.ofByteArray());
+
+			return new SpotifyResponse(response.statusCode(),
+					response.headers().map(), response.body());
+
+		} catch (IOException e) {
+			throw new SpotifyAPIException("Could not connect to the Internet", e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SpotifyAPIException("Request was interrupted", e);
+		}
+	}
+
+	/**
+	 * Sends a HEAD request to each of the <b>hosts</b> without waiting, which leaves an
+	 * open connection in the pool for the requests that follow.
+	 */
+	@Override
+	public void prewarm(String... hosts) {
+		for (String host : hosts) {
+			HttpRequest request = HttpRequest.newBuilder(URI.create(host))
+					.method("HEAD", BodyPublishers.noBody())
+					.timeout(CONNECT_TIMEOUT)
+					.build();
+
+			// failures only mean the first real request opens the connection instead
+			client.sendAsync(request, BodyHandlers.discarding())
+					.exceptionally(ex -> null);
+		}
+	}
+}
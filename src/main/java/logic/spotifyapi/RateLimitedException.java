@@ -0,0 +1,28 @@
+package logic.spotifyapi;
+
+/**
+ * Thrown when a request isn't sent, or is rejected with a 429, because the app has
+ * made too many requests to the Spotify Web API.
+ *
+ * @see RequestBudget
+ */
+public class RateLimitedException extends SpotifyAPIException {
+
+	/** The seconds until requests can be made again. */
+	private final long retryAfter;
+
+	public RateLimitedException (String message, long retryAfter) {
+		super(message);
+		this.retryAfter = retryAfter;
+	}
+
+	/**
+	 * Returns the seconds until requests can be made again, from the Retry-After
+	 * header of the response or the budget.
+	 *
+	 * @return The seconds to wait.
+	 */
+	public long getRetryAfter () {
+		return retryAfter;
+	}
+}
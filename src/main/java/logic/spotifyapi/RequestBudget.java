@@ -0,0 +1,252 @@
+package logic.spotifyapi;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket shared by everything that sends requests to the Spotify Web API, so
+ * that a burst of requests (such as skipping through songs while the playback state
+ * is polled) stays under Spotify's rate limit rather than being rejected with a 429.
+ * Each request takes a token, and tokens are added back at a steady rate up to the
+ * bucket's capacity.
+ *
+ * <p>Background requests ({@code RequestPriority.isBackground()}) leave a reserve of
+ * tokens for {@code INTERACTIVE} ones and wait while any interactive request is waiting, so
+ * polling never delays what the user clicked. When Spotify does answer with a 429,
+ * {@code onRateLimited} stops every request until its {@code Retry-After} has passed.
+ *
+ * <p>The calls made to each endpoint in the last 30 seconds (Spotify's rolling window)
+ * are counted, and printed when rate limited to show which endpoints used the budget.
+ */
+public class RequestBudget {
+
+	/** The most tokens the bucket holds, which is the largest burst allowed. */
+	public static final int DEFAULT_CAPACITY = 20;
+
+	/** The tokens added back each second. */
+	public static final double DEFAULT_REFILL_RATE = 2.0;
+
+	/** The tokens background requests leave for interactive ones. */
+	private static final int BACKGROUND_RESERVE = 5;
+
+	/** The rolling window the calls to each endpoint are counted over, in nanoseconds. */
+	private static final long WINDOW = TimeUnit.SECONDS.toNanos(30);
+
+	/** The budget shared by every <i>SpotifyAPI</i> unless set. */
+	private static final RequestBudget shared =
+			new RequestBudget(DEFAULT_CAPACITY, DEFAULT_REFILL_RATE);
+
+	private final int capacity;
+
+	/** The tokens added back each nanosecond. */
+	private final double refillPerNano;
+
+	private double tokens;
+
+	/** The local time in nanoseconds tokens were last added back. */
+	private long lastRefill = System.nanoTime();
+
+	/** The local time in nanoseconds until which no request is sent, after a 429. */
+	private long blockedUntil = System.nanoTime();
+
+	/** The number of interactive requests waiting for a token. */
+	private int interactiveWaiting;
+
+	/** The local times of the calls to each endpoint in the window. */
+	private final Map<String, Deque<Long>> calls = new LinkedHashMap<>();
+
+	/**
+	 * Creates a full bucket of <b>capacity</b> tokens refilled at <b>refillRate</b>
+	 * tokens per second.
+	 *
+	 * @param capacity The most tokens the bucket holds.
+	 * @param refillRate The tokens added back each second.
+	 */
+	public RequestBudget(int capacity, double refillRate) {
+		if (capacity <= BACKGROUND_RESERVE) {
+			throw new IllegalArgumentException("Capacity must be greater than "
+					+ BACKGROUND_RESERVE + ".");
+		} else if (refillRate <= 0) {
+			throw new IllegalArgumentException("Refill rate must be positive.");
+		}
+		this.capacity = capacity;
+		this.refillPerNano = refillRate / TimeUnit.SECONDS.toNanos(1);
+		this.tokens = capacity;
+	}
+
+	/**
+	 * Returns the budget shared by every <i>SpotifyAPI</i>.
+	 *
+	 * @return The shared <i>RequestBudget</i>.
+	 */
+	public static RequestBudget getShared() {
+		return shared;
+	}
+
+	/**
+	 * Takes a token for a request to <b>url</b>, waiting up to the priority's
+	 * {@code getMaxWait()} for one.
+	 *
+	 * @param priority How urgently the request is needed.
+	 * @param url The endPoint and query (if applicable) of the request.
+	 * @throws RateLimitedException If no token could be taken in time.
+	 */
+	public synchronized void acquire(RequestPriority priority, String url) {
+		if (priority == null) {
+			throw new NullPointerException("RequestPriority \"priority\" is null.");
+		}
+
+		boolean interactive = !priority.isBackground();
+		long deadline = System.nanoTime() + priority.getMaxWait().toNanos();
+
+		if (interactive) {
+			interactiveWaiting++;
+		}
+		try {
+			while (true) {
+				long now = System.nanoTime();
+				long remaining = deadline - now;
+				refill(now);
+
+				long wait;
+				boolean yielding = false;
+				if (now - blockedUntil < 0) {
+					wait = blockedUntil - now;
+				} else if (tokens >= 1 && (interactive || (interactiveWaiting == 0 &&
+						tokens >= 1 + BACKGROUND_RESERVE))) {
+					tokens--;
+					record(endpointOf(url), now);
+					return;
+				} else if (!interactive && interactiveWaiting > 0 &&
+						tokens >= 1 + BACKGROUND_RESERVE) {
+					// notified once the interactive requests have their tokens
+					wait = remaining;
+					yielding = true;
+				} else {
+					// until enough tokens are added back
+					double needed = (interactive ? 1 : 1 + BACKGROUND_RESERVE) - tokens;
+					wait = Math.max(TimeUnit.MILLISECONDS.toNanos(1),
+							(long) Math.ceil(needed / refillPerNano));
+				}
+
+				// a background request gives up right away if it can't be sent in time
+				if (remaining <= 0 || (!interactive && !yielding && wait > remaining)) {
+					throw new RateLimitedException("Request budget exhausted for "
+							+ endpointOf(url) + ".", secondsUntil(now, now + wait));
+				}
+				TimeUnit.NANOSECONDS.timedWait(this, Math.min(wait, remaining));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SpotifyAPIException("Interrupted waiting for the request budget.", e);
+		} finally {
+			if (interactive) {
+				interactiveWaiting--;
+				notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Stops every request for <b>retryAfter</b> seconds after a request to <b>url</b>
+	 * was rejected with a 429, and empties the bucket so requests resume slowly.
+	 *
+	 * @param url The endPoint and query (if applicable) of the rejected request.
+	 * @param retryAfter The seconds of the response's Retry-After header.
+	 */
+	public synchronized void onRateLimited(String url, long retryAfter) {
+		long now = System.nanoTime();
+		long until = now + TimeUnit.SECONDS.toNanos(Math.max(retryAfter, 1));
+		if (until - blockedUntil > 0) {
+			blockedUntil = until;
+		}
+		tokens = 0;
+		lastRefill = until;
+
+		System.out.println("Rate limited by Spotify at " + endpointOf(url) + " for "
+				+ retryAfter + " seconds. Calls in the last 30 seconds: "
+				+ getCallsInWindow());
+		notifyAll();
+	}
+
+	/**
+	 * Returns the number of calls made to each endpoint in the rolling window.
+	 *
+	 * @return The calls by endpoint, sorted by endpoint.
+	 */
+	public synchronized Map<String, Integer> getCallsInWindow() {
+		long now = System.nanoTime();
+		Map<String, Integer> counts = new TreeMap<>();
+		for (Iterator<Map.Entry<String, Deque<Long>>> it = calls.entrySet().iterator();
+				it.hasNext();) {
+			Map.Entry<String, Deque<Long>> entry = it.next();
+			expire(entry.getValue(), now);
+			if (entry.getValue().isEmpty()) {
+				it.remove();
+			} else {
+				counts.put(entry.getKey(), entry.getValue().size());
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * Returns the tokens in the bucket.
+	 *
+	 * @return The tokens, rounded down.
+	 */
+	public synchronized int getAvailableTokens() {
+		refill(System.nanoTime());
+		return (int) tokens;
+	}
+
+	private void refill(long now) {
+		if (now - lastRefill > 0) {
+			tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+			lastRefill = now;
+		}
+	}
+
+	private void record(String endpoint, long now) {
+		Deque<Long> times = calls.computeIfAbsent(endpoint, e -> new ArrayDeque<>());
+		expire(times, now);
+		times.addLast(now);
+	}
+
+	private static void expire(Deque<Long> times, long now) {
+		while (!times.isEmpty() && now - times.peekFirst() > WINDOW) {
+			times.removeFirst();
+		}
+	}
+
+	private static long secondsUntil(long now, long until) {
+		return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(until - now + 999_999_999));
+	}
+
+	/**
+	 * Returns the endpoint of <b>url</b>: its path without the query, and with the
+	 * Spotify IDs (22 base-62 characters) replaced, so that requests for different
+	 * songs count toward the same endpoint.
+	 *
+	 * @param url The endPoint and query (if applicable) of a request.
+	 * @return The endpoint, such as "/v1/me/player/play".
+	 */
+	static String endpointOf(String url) {
+		String path = url;
+		int query = path.indexOf('?');
+		if (query >= 0) {
+			path = path.substring(0, query);
+		}
+		int scheme = path.indexOf("://");
+		if (scheme >= 0) {
+			int slash = path.indexOf('/', scheme + 3);
+			path = (slash >= 0) ? path.substring(slash) : "/";
+		}
+		return path.replaceAll("/[0-9A-Za-z]{22}(?=/|$)", "/{id}");
+	}
+}
@@ -0,0 +1,112 @@
+package logic.spotifyapi;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Shares one in-flight request among every thread that makes the same GET at the same
+ * time, such as the devices fetched by a button press while the startup fetches them,
+ * or a search entered twice before the first returned. The first thread sends the
+ * request and the others wait for and return its result (or exception), so identical
+ * GETs cost one network round trip and are decoded once. Requests are keyed by method
+ * and URL, and only while in flight: a GET made after the last one returned is sent
+ * again.
+ *
+ * <p>Only GETs are coalesced, as other methods change the player and must each be
+ * sent. The results are shared between threads, so they must not be modified.
+ *
+ * @param <T> The type of the result shared, such as a <i>SpotifyResponse</i>.
+ */
+public class RequestCoalescer<T> {
+
+	/** The results of the requests in flight, by method and URL. */
+	private final ConcurrentHashMap<String, CompletableFuture<T>> inFlight =
+			new ConcurrentHashMap<>();
+
+	/** The GETs made, whether sent or shared. */
+	private final AtomicLong calls = new AtomicLong();
+
+	/** The GETs that shared a request in flight instead of being sent. */
+	private final AtomicLong savedCalls = new AtomicLong();
+
+	/**
+	 * Returns the result of the request in flight with the same <b>method</b> and
+	 * <b>url</b> if there is one, or else sends the request by calling <b>request</b>
+	 * on this thread and shares its result with the threads that make the same request
+	 * meanwhile.
+	 *
+	 * @param method The HTTP method of the request; requests other than GETs are always
+	 * sent.
+	 * @param url The endPoint and query (if applicable) of the request.
+	 * @param request Sends the request and returns its result.
+	 * @return The result of the request.
+	 */
+	public T execute(String method, String url, Supplier<T> request) {
+		if (method == null) {
+			throw new NullPointerException("String \"method\" is null.");
+		} else if (url == null) {
+			throw new NullPointerException("String \"url\" is null.");
+		}
+
+		if (!method.equalsIgnoreCase("GET")) {
+			return request.get();
+		}
+		calls.incrementAndGet();
+
+		String key = "GET " + url;
+		CompletableFuture<T> sent = new CompletableFuture<>();
+		CompletableFuture<T> shared = inFlight.putIfAbsent(key, sent);
+
+		if (shared != null) {
+			savedCalls.incrementAndGet();
+			return join(shared);
+		}
+
+		try {
+			T result = request.get();
+			sent.complete(result);
+			return result;
+		} catch (RuntimeException | Error e) {
+			sent.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, sent);
+		}
+	}
+
+	/** Waits for <b>shared</b>, throwing the exception of the thread that sent it. */
+	private static <T> T join(CompletableFuture<T> shared) {
+		try {
+			return shared.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new SpotifyAPIException(cause);
+		}
+	}
+
+	/**
+	 * Returns the GETs made, whether sent or shared.
+	 *
+	 * @return The number of GETs.
+	 */
+	public long getCalls() {
+		return calls.get();
+	}
+
+	/**
+	 * Returns the GETs that shared a request in flight rather than being sent.
+	 *
+	 * @return The number of network round trips saved.
+	 */
+	public long getSavedCalls() {
+		return savedCalls.get();
+	}
+}
@@ -0,0 +1,51 @@
+package logic.spotifyapi;
+
+import java.time.Duration;
+
+/**
+ * How urgently a request to the Spotify Web API is needed, from most to least urgent,
+ * which decides how it is given the <i>RequestBudget</i> and the <i>RequestScheduler</i>:
+ * requests the user is waiting on (play, pause, searches) can spend all of the budget
+ * and are started first, while requests made in the background (polling the playback
+ * state, prefetching album covers) leave a reserve for them and yield to any that are
+ * waiting.
+ *
+ * @see RequestBudget
+ * @see RequestScheduler
+ */
+public enum RequestPriority {
+
+	/** A request the user is waiting on. */
+	INTERACTIVE(Duration.ofSeconds(5)),
+
+	/** A poll of the playback state, which is skipped if it can't be made soon. */
+	POLL(Duration.ofSeconds(1)),
+
+	/** A request for data that may be needed later, such as an album cover. */
+	PREFETCH(Duration.ofSeconds(2));
+
+	/** The longest a request waits for the budget before giving up. */
+	private final Duration maxWait;
+
+	private RequestPriority(Duration maxWait) {
+		this.maxWait = maxWait;
+	}
+
+	/**
+	 * Returns the longest a request of this priority waits for the budget.
+	 *
+	 * @return The wait as a <i>Duration</i>.
+	 */
+	public Duration getMaxWait() {
+		return maxWait;
+	}
+
+	/**
+	 * Returns if the request is made without the user waiting on it.
+	 *
+	 * @return <i>true</i> for every priority but {@code INTERACTIVE}.
+	 */
+	public boolean isBackground() {
+		return this != INTERACTIVE;
+	}
+}
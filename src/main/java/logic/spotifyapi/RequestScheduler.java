@@ -0,0 +1,239 @@
+package logic.spotifyapi;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Decides when each request to Spotify is sent, so that a slow poll or album cover
+ * download never holds up a click of play, pause or next. Requests are sent by the
+ * thread that makes them, once the scheduler lets them start:
+ * <ul>
+ * <li>Each <i>RequestPriority</i> has its own limit of requests in flight, so one poll
+ * is made at a time and covers can't take every connection.</li>
+ * <li>Background requests also share a limit of requests in flight overall, which
+ * interactive requests aren't held to, and don't start while a request of a higher
+ * priority is waiting.</li>
+ * <li>A background request waiting to start is cancelled with a
+ * <i>RequestSupersededException</i> when a newer request with the same key is made,
+ * such as the cover of a song that was skipped.</li>
+ * </ul>
+ *
+ * <p>The time requests wait to start is recorded for each priority, and
+ * {@code getQueueWaitReport()} returns it as a table. A wait longer than
+ * <b>SLOW_WAIT</b> is printed as it happens.
+ */
+public class RequestScheduler {
+
+	/** The requests of each priority that can be in flight at once. */
+	private static final int INTERACTIVE_LIMIT = 4;
+	private static final int POLL_LIMIT = 1;
+	private static final int PREFETCH_LIMIT = 2;
+
+	/** The background requests that can be in flight at once. */
+	private static final int BACKGROUND_LIMIT = 2;
+
+	/** The wait to start, in nanoseconds, that is printed. */
+	private static final long SLOW_WAIT = TimeUnit.MILLISECONDS.toNanos(250);
+
+	/** The scheduler shared by every <i>SpotifyAPI</i> unless set. */
+	private static final RequestScheduler shared = new RequestScheduler();
+
+	/** A request waiting to start. */
+	private static class Waiter {
+		final String key;
+		final long queuedAt = System.nanoTime();
+		boolean started;
+		boolean superseded;
+
+		Waiter(String key) {
+			this.key = key;
+		}
+	}
+
+	/** The queue, limit and statistics of a priority. */
+	private static class PriorityClass {
+		final int limit;
+		final Deque<Waiter> waiting = new ArrayDeque<>();
+		int running;
+
+		long started;
+		long superseded;
+		long totalWait;
+		long maxWait;
+
+		PriorityClass(int limit) {
+			this.limit = limit;
+		}
+	}
+
+	private final Map<RequestPriority, PriorityClass> classes =
+			new EnumMap<>(RequestPriority.class);
+
+	/** The background requests in flight. */
+	private int backgroundRunning;
+
+	/**
+	 * Creates a scheduler with the default limits of each priority.
+	 */
+	public RequestScheduler() {
+		classes.put(RequestPriority.INTERACTIVE, new PriorityClass(INTERACTIVE_LIMIT));
+		classes.put(RequestPriority.POLL, new PriorityClass(POLL_LIMIT));
+		classes.put(RequestPriority.PREFETCH, new PriorityClass(PREFETCH_LIMIT));
+	}
+
+	/**
+	 * Returns the scheduler shared by every <i>SpotifyAPI</i>.
+	 *
+	 * @return The shared <i>RequestScheduler</i>.
+	 */
+	public static RequestScheduler getShared() {
+		return shared;
+	}
+
+	/**
+	 * Waits until a request of <b>priority</b> can start, then sends it by calling
+	 * <b>request</b> on this thread.
+	 *
+	 * @param priority How urgently the request is needed.
+	 * @param key What the request is for, such as "playback-state", so that a waiting
+	 * background request for the same thing is superseded by it (can be null).
+	 * @param request Sends the request and returns its response.
+	 * @return The response returned by <b>request</b>.
+	 * @throws RequestSupersededException If a newer request with the same <b>key</b>
+	 * was made before this one started.
+	 */
+	public <T> T execute(RequestPriority priority, String key, Supplier<T> request) {
+		if (priority == null) {
+			throw new NullPointerException("RequestPriority \"priority\" is null.");
+		} else if (request == null) {
+			throw new NullPointerException("Supplier \"request\" is null.");
+		}
+
+		PriorityClass pc = classes.get(priority);
+		Waiter waiter = new Waiter(key);
+
+		synchronized (this) {
+			if (key != null && priority.isBackground()) {
+				supersede(pc, key);
+			}
+			pc.waiting.addLast(waiter);
+			dispatch();
+
+			try {
+				while (!waiter.started && !waiter.superseded) {
+					wait();
+				}
+			} catch (InterruptedException e) {
+				if (!pc.waiting.remove(waiter) && waiter.started) {
+					release(priority, pc);
+				}
+				Thread.currentThread().interrupt();
+				throw new SpotifyAPIException("Interrupted waiting to send a request.", e);
+			}
+
+			if (waiter.superseded) {
+				throw new RequestSupersededException("Request for \"" + key
+						+ "\" superseded by a newer one.");
+			}
+			recordWait(priority, pc, System.nanoTime() - waiter.queuedAt);
+		}
+
+		try {
+			return request.get();
+		} finally {
+			synchronized (this) {
+				release(priority, pc);
+			}
+		}
+	}
+
+	/** Frees the slot of a request that ended, and starts the next that can start. */
+	private void release(RequestPriority priority, PriorityClass pc) {
+		pc.running--;
+		if (priority.isBackground()) {
+			backgroundRunning--;
+		}
+		dispatch();
+	}
+
+	/** Cancels the waiting requests of <b>pc</b> with <b>key</b>. */
+	private void supersede(PriorityClass pc, String key) {
+		for (Iterator<Waiter> it = pc.waiting.iterator(); it.hasNext();) {
+			Waiter w = it.next();
+			if (key.equals(w.key)) {
+				it.remove();
+				w.superseded = true;
+				pc.superseded++;
+				notifyAll();
+			}
+		}
+	}
+
+	/** Starts the waiting requests that can start, most urgent first. */
+	private void dispatch() {
+		boolean higherWaiting = false;
+		for (Map.Entry<RequestPriority, PriorityClass> entry : classes.entrySet()) {
+			boolean background = entry.getKey().isBackground();
+			PriorityClass pc = entry.getValue();
+
+			while (!pc.waiting.isEmpty() && !higherWaiting && pc.running < pc.limit &&
+					(!background || backgroundRunning < BACKGROUND_LIMIT)) {
+				pc.waiting.removeFirst().started = true;
+				pc.running++;
+				if (background) {
+					backgroundRunning++;
+				}
+				notifyAll();
+			}
+			higherWaiting |= !pc.waiting.isEmpty();
+		}
+	}
+
+	private void recordWait(RequestPriority priority, PriorityClass pc, long wait) {
+		pc.started++;
+		pc.totalWait += wait;
+		pc.maxWait = Math.max(pc.maxWait, wait);
+
+		if (wait > SLOW_WAIT) {
+			System.out.println(priority + " request waited "
+					+ TimeUnit.NANOSECONDS.toMillis(wait) + " ms to start.");
+		}
+	}
+
+	/**
+	 * Returns the time requests of <b>priority</b> have waited to start on average.
+	 *
+	 * @param priority The priority of the requests.
+	 * @return The average wait in milliseconds, or 0 if none have started.
+	 */
+	public synchronized double getAverageQueueWait(RequestPriority priority) {
+		PriorityClass pc = classes.get(priority);
+		return (pc.started == 0) ? 0 : pc.totalWait / (double) pc.started / 1_000_000;
+	}
+
+	/**
+	 * Returns the requests started, superseded and waiting, and the average and longest
+	 * time requests waited to start, of each priority.
+	 *
+	 * @return The report as a table, one priority per line.
+	 */
+	public synchronized String getQueueWaitReport() {
+		StringBuilder sb = new StringBuilder("Request queue wait (ms):\n");
+		sb.append(String.format("  %-12s %8s %10s %8s %8s %8s%n", "priority", "started",
+				"superseded", "waiting", "avg", "max"));
+
+		for (Map.Entry<RequestPriority, PriorityClass> entry : classes.entrySet()) {
+			PriorityClass pc = entry.getValue();
+			sb.append(String.format("  %-12s %8d %10d %8d %8.1f %8d%n", entry.getKey(),
+					pc.started, pc.superseded, pc.waiting.size(),
+					getAverageQueueWait(entry.getKey()),
+					TimeUnit.NANOSECONDS.toMillis(pc.maxWait)));
+		}
+		return sb.toString();
+	}
+}
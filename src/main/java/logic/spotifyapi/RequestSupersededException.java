@@ -0,0 +1,15 @@
+package logic.spotifyapi;
+
+/**
+ * Thrown when a background request waiting in the <i>RequestScheduler</i> is replaced
+ * by a newer request for the same thing before it was sent, such as a poll replaced by
+ * the next poll.
+ *
+ * @see RequestScheduler
+ */
+public class RequestSupersededException extends SpotifyAPIException {
+
+	public RequestSupersededException (String message) {
+		super(message);
+	}
+}
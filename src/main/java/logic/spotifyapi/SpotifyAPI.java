@@ -5,24 +5,31 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 
-import javax.imageio.ImageIO;
 import javax.swing.JOptionPane;
 
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.spi.json.JsonProvider;
 
 import kong.unirest.JsonNode;
-import kong.unirest.Unirest;
 import kong.unirest.UnirestException;
+import logic.albumart.AlbumArtDecoder;
+import logic.albumart.AlbumArtDiskCache;
 import logic.device.Device;
+import logic.playbackstate.PlaybackState;
 import logic.playerlogic.PlayerLogic;
+import logic.song.JSONPreset;
 import logic.song.JSONSongException;
 import logic.song.Song;
+import logic.song.SongSnapshot;
 import logic.spotifycredentials.SpotifyCredentials;
 import net.minidev.json.JSONArray;
 import net.minidev.json.JSONObject;
@@ -46,12 +53,75 @@ public class SpotifyAPI {
 	
 	/** The SpotifyCredentials instance can use either the <i>Client Authorization</i>
 	 * flow or <i>Authorization Code + PKCE</i> flow to get an access token.
-	 * <p>An <i>Authorization Code + PKCE</i> flow requires a refreshed token every 6 
-	 * minutes. 
+	 * <p>Its access token is refreshed in the background before it expires, and
+	 * again if a request is rejected with a 401. 
 	 * 
 	 * @see SpotifyCredentials */
 	private SpotifyCredentials sc = new SpotifyCredentials();
 	
+	/** The HTTP client all requests are sent through. 
+	 * 
+	 * @see SpotifyTransport */
+	private SpotifyTransport transport = SpotifyTransport.getDefault();
+	
+	/** The rate limit budget the requests to the Web API are sent within, which is 
+	 * shared by every instance unless set. 
+	 * 
+	 * @see RequestBudget */
+	private RequestBudget requestBudget = RequestBudget.getShared();
+	
+	/** Decides when each request is sent, so the user's requests aren't held up by 
+	 * polls and cover downloads. 
+	 * 
+	 * @see RequestScheduler */
+	private RequestScheduler requestScheduler = RequestScheduler.getShared();
+	
+	/** Shares the responses of identical GETs in flight at the same time. 
+	 * 
+	 * @see RequestCoalescer */
+	private final RequestCoalescer<SpotifyResponse> responseCoalescer = 
+			new RequestCoalescer<>();
+	
+	/** Shares the decoded documents of identical GETs in flight at the same time, so
+	 * they're also decoded once. */
+	private final RequestCoalescer<DocumentContext> documentCoalescer = 
+			new RequestCoalescer<>();
+	
+	/** The key of the requests of the playback state, which supersede each other. */
+	private static final String PLAYBACK_STATE_KEY = "playback-state";
+	
+	/** The key of album cover downloads, which supersede each other. */
+	private static final String ALBUM_COVER_KEY = "album-cover";
+	
+	/** The longest Retry-After an interactive request waits out to be sent again, in 
+	 * seconds, rather than failing. */
+	private static final long MAX_RETRY_AFTER_WAIT = 3;
+	
+	/** The album cover bytes kept on disk between launches (null to not cache them). */
+	private AlbumArtDiskCache albumArtDiskCache = AlbumArtDiskCache.getDefault();
+	
+	/** The timeout of the playback state GET, which is polled and should fail fast. */
+	private static final Duration POLL_TIMEOUT = Duration.ofSeconds(3);
+	
+	/** The timeout of the player PUTs and POSTs (play, pause, next, etc.). */
+	private static final Duration PLAYER_TIMEOUT = Duration.ofSeconds(5);
+	
+	/** The timeout of other requests, such as searches. */
+	private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(8);
+	
+	/** The timeout of album cover downloads. */
+	private static final Duration IMAGE_TIMEOUT = Duration.ofSeconds(10);
+	
+	/** The endpoint of the available devices. */
+	private static final String DEVICES_URL = "https://api.spotify.com/v1/me/player/devices";
+	
+	/** The endpoint of the player's playback state. */
+	private static final String PLAYER_URL = "https://api.spotify.com/v1/me/player";
+	
+	/** The endpoint of the currently playing song. */
+	private static final String CURRENT_SONG_URL = 
+			"https://api.spotify.com/v1/me/player/currently-playing";
+	
 	/** 
 	 * Empty constructor that doesn't get authorization to the Spotify Web API.
 	 */
@@ -103,6 +173,70 @@ public class SpotifyAPI {
 		this.sc = sc;
 	}
 	
+	/**
+	 * Sets the <i>SpotifyTransport</i> that requests are sent through, which is the
+	 * shared {@code SpotifyTransport.getDefault()} unless set.
+	 * 
+	 * @param transport The HTTP client to send requests through.
+	 */
+	public void setTransport(SpotifyTransport transport) {
+		if (transport == null) {
+			throw new NullPointerException("SpotifyTransport \"transport\" cannot be null.");
+		}
+		this.transport = transport;
+	}
+	
+	/**
+	 * Sets the <i>RequestBudget</i> that requests are sent within, which is the shared
+	 * {@code RequestBudget.getShared()} unless set.
+	 * 
+	 * @param requestBudget The rate limit budget to send requests within.
+	 */
+	public void setRequestBudget(RequestBudget requestBudget) {
+		if (requestBudget == null) {
+			throw new NullPointerException("RequestBudget \"requestBudget\" cannot be null.");
+		}
+		this.requestBudget = requestBudget;
+	}
+	
+	/**
+	 * Sets the <i>RequestScheduler</i> that decides when requests are sent, which is 
+	 * the shared {@code RequestScheduler.getShared()} unless set.
+	 * 
+	 * @param requestScheduler The scheduler to send requests through.
+	 */
+	public void setRequestScheduler(RequestScheduler requestScheduler) {
+		if (requestScheduler == null) {
+			throw new NullPointerException("RequestScheduler \"requestScheduler\" cannot "
+					+ "be null.");
+		}
+		this.requestScheduler = requestScheduler;
+	}
+	
+	public RequestScheduler getRequestScheduler() {
+		return requestScheduler;
+	}
+	
+	/**
+	 * Returns the GETs to the Web API that shared a request already in flight rather
+	 * than being sent, whether they shared the decoded document or the raw response.
+	 * 
+	 * @return The number of requests saved.
+	 */
+	public long getCoalescedCallsSaved() {
+		return documentCoalescer.getSavedCalls() + responseCoalescer.getSavedCalls();
+	}
+	
+	/**
+	 * Returns the GETs to the Web API made, whether sent or shared.
+	 * 
+	 * @return The number of GETs.
+	 */
+	public long getCoalescedCalls() {
+		// a document GET that isn't shared is counted by the raw GET it sends
+		return responseCoalescer.getCalls() + documentCoalescer.getSavedCalls();
+	}
+	
 	/**
 	 * Gets authorization to the Spotify Web API by using either the Client 
 	 * Authorization flow (doesn't access a Spotify account but can play previews)
@@ -123,8 +257,8 @@ public class SpotifyAPI {
 			} else {
 				setSpotifyCredentials(new SpotifyCredentials(init));
 			}
-		} catch (UnirestException ue) {
-			throw new SpotifyAPIException("Could not get connection.", ue);
+		} catch (UnirestException | SpotifyAPIException e) {
+			throw new SpotifyAPIException("Could not get connection.", e);
 		}
 	}
 	
@@ -174,12 +308,22 @@ public class SpotifyAPI {
 		
 		String returnJson = "";
 		
-	    final String url = "https://api.spotify.com/v1/me/player/devices";
-	    returnJson = getSpotifyAPIRequest(url).toString();
+	    returnJson = requestJson("GET", DEVICES_URL, null);
 
 		return returnJson;
 	}
 	
+	/** 
+	 * Gets the available devices on Spotify, decoding the response once straight into
+	 * <i>Device</i> objects.
+	 * 
+	 * @return The available <i>Device</i> objects.
+	 * @see #getDevices()
+	 */
+	public Device[] fetchDevices () {
+		return Device.initializeFromJSON(getSpotifyAPIDocument(DEVICES_URL));
+	}
+	
 	/** 
 	 * Transfers the playback, active or not, to the specified Device <b>d</b>, with
 	 * the additional parameter <b>play</b> that indicates whether to begin playback
@@ -212,7 +356,7 @@ public class SpotifyAPI {
 			jObj.put("play", play);
 		// }
 		
-		returnJson = putSpotifyAPIRequest(url, jObj).toPrettyString();
+		returnJson = requestJson("PUT", url, jObj);
 		
 		return returnJson;
 	}
@@ -234,6 +378,35 @@ public class SpotifyAPI {
 		// Initialize to return not null if error
 		String returnJson = "";
 		
+		// GET request
+	    returnJson = requestJson("GET", searchURL(search, limit), null);
+
+		return returnJson;
+	}
+	
+	/** 
+	 * Searches for <b>limit</b> songs matching <b>search</b>, decoding the response 
+	 * once straight into <i>Song</i> objects with the "search" <i>JSONPreset</i>.
+	 * 
+	 * @param search The keywords of the query.
+	 * @param limit The number of songs to return between 1 and 50.
+	 * @return The <i>Song</i> objects found.
+	 * @see #searchForSongs(String, int)
+	 */
+	public Song[] fetchSongs(String search, int limit) {
+		return Song.initializeFromJSON(getSpotifyAPIDocument(searchURL(search, limit)),
+				JSONPreset.getJSONPresetbyName("search"));
+	}
+	
+	/** 
+	 * Returns the URL of a track search of <b>search</b> for <b>limit</b> songs.
+	 * 
+	 * @param search The keywords of the query.
+	 * @param limit The number of songs to return between 1 and 50.
+	 * @return The URL of the search.
+	 */
+	private static String searchURL(String search, int limit) {
+		
 		if (search == null) {
 			throw new NullPointerException("The search query cannot be null.");
 		} else if (limit < 1 || limit > 50) {
@@ -251,10 +424,7 @@ public class SpotifyAPI {
 	    	.append("&type=").append(type)
 	    	.append("&limit=").append(lim);
 	    
-		// GET request
-	    returnJson = getSpotifyAPIRequest(endPoint + query).toPrettyString();
-
-		return returnJson;
+	    return endPoint + query;
 	}
 	
 	/** Returns the current Spotify player state, regardless of device, in a <i>Song</i> 
@@ -277,12 +447,35 @@ public class SpotifyAPI {
 		
 		String returnJson = "";
 		
-		String url = "https://api.spotify.com/v1/me/player";
-		returnJson = getSpotifyAPIRequest(url).toPrettyString();
+		returnJson = requestJson("GET", PLAYER_URL, null);
 
 		return returnJson;
 	}
 	
+	/** 
+	 * Gets the current Spotify player state, decoding the response once straight into
+	 * the <i>Song</i> on the player (with the "playbackState" <i>JSONPreset</i>) and the
+	 * <i>Device</i> it is active on. Throws a <i>JSONSongException</i> if there is no
+	 * active player or no song information, as {@code Song.initializeFromJSON()} does.
+	 * 
+	 * @return The <i>PlaybackState</i> of the player.
+	 * @see #getPlaybackState(boolean)
+	 */
+	public PlaybackState fetchPlaybackState() {
+		
+		DocumentContext doc = getSpotifyAPIDocument(PLAYER_URL);
+		long receivedAt = System.currentTimeMillis();
+		
+		Song song = Song.initializeFromJSON(doc, 
+				JSONPreset.getJSONPresetbyName("playbackState"))[0];
+		
+		Map<?, ?> root = doc.json();
+		Device device = (root.get("device") != null) ? 
+				Device.initializeFromJSON(doc)[0] : null;
+		
+		return new PlaybackState(song, device, receivedAt);
+	}
+	
 	/** 
 	 * Uses the "player/currently-playing" endPoint to get a JSON containing the
 	 * currently playing song's information, using the base <i>JSONPath</i> expression,
@@ -294,12 +487,23 @@ public class SpotifyAPI {
 		
 		String returnJson = "";
 		
-		String url = "https://api.spotify.com/v1/me/player/currently-playing";
-		returnJson = getSpotifyAPIRequest(url).toPrettyString();
+		returnJson = requestJson("GET", CURRENT_SONG_URL, null);
 		
 		return returnJson;
 	}
 	
+	/** 
+	 * Gets the currently playing song, decoding the response once straight into a
+	 * <i>Song</i> with the "currentSong" <i>JSONPreset</i>.
+	 * 
+	 * @return The currently playing <i>Song</i>.
+	 * @see #getCurrentSong()
+	 */
+	public Song fetchCurrentSong () {
+		return Song.initializeFromJSON(getSpotifyAPIDocument(CURRENT_SONG_URL),
+				JSONPreset.getJSONPresetbyName("currentSong"))[0];
+	}
+	
 	/** 
 	 * Uses the "player/recently-playing" endPoint to get a JSON containing an
 	 * array of <i>Song</i> objects between 1 and 50, and uses the base <i>JSONPath</i> 
@@ -324,7 +528,7 @@ public class SpotifyAPI {
 		final String endPoint = "https://api.spotify.com/v1/me/player/recently-played";
 		final String query = "?limit=" + limit;
 		
-		returnJson = getSpotifyAPIRequest(endPoint + query).toPrettyString();
+		returnJson = requestJson("GET", endPoint + query, null);
 
 		return returnJson;
 	}
@@ -342,6 +546,24 @@ public class SpotifyAPI {
 	 */
 	public String play(Song song, Device d) {
 		
+		if (song == null) {
+			throw new IllegalArgumentException("Song parameter cannot be null");
+		}
+		
+		return play(song.toSnapshot(), d);
+	}
+	
+	/** 
+	 * Sends a PUT request to play the song of <b>song</b>, as {@code play(Song, Device)}
+	 * does, from a <i>SongSnapshot</i> that can be read on any thread.
+	 * 
+	 * @param song A <i>SongSnapshot</i> of the song to play.
+	 * @param d The <i>Device</i> object of the device to play from (null = active device).
+	 * @return The PUT JSON response as a String.
+	 * @see #play(Song, Device)
+	 */
+	public String play(SongSnapshot song, Device d) {
+		
 		String response = "";
 		
 		if (song == null) {
@@ -364,7 +586,7 @@ public class SpotifyAPI {
 	    	jObj.put("position_ms", song.getProgress());
   		// }
 	    
-	    response = putSpotifyAPIRequest(endPoint + query, jObj).toPrettyString();
+	    response = requestJson("PUT", endPoint + query, jObj);
 		
 		return response;
 	}
@@ -385,7 +607,7 @@ public class SpotifyAPI {
 	    final String endPoint = "https://api.spotify.com/v1/me/player/pause";
 	    final String query = (d == null) ? "" : "?device=" + d.getId();
 	    
-	    response = putSpotifyAPIRequest(endPoint + query, null).toPrettyString();
+	    response = requestJson("PUT", endPoint + query, null);
 		
 		return response;
 	}
@@ -407,7 +629,7 @@ public class SpotifyAPI {
 	    final String endPoint = "https://api.spotify.com/v1/me/player/next";
 	    final String query = (d == null) ? "" : "?device=" + d.getId();
 	    
-	    response = postSpotifyAPIRequest(endPoint + query).toPrettyString();
+	    response = requestJson("POST", endPoint + query, null);
 		
 		return response;
 	}
@@ -429,7 +651,7 @@ public class SpotifyAPI {
 	    final String endPoint = "https://api.spotify.com/v1/me/player/previous";
 	    final String query = (d == null) ? "" : "?device=" + d.getId();
 	    
-	    response = postSpotifyAPIRequest(endPoint + query).toPrettyString();
+	    response = requestJson("POST", endPoint + query, null);
 		
 		return response;
 	}
@@ -453,21 +675,87 @@ public class SpotifyAPI {
 	    final String device = (d == null) ? "" : "&device=" + d.getId();
 	    final String query = "?uri=" + uri + device;
 	    
-	    response = postSpotifyAPIRequest(endPoint + query).toPrettyString();
+	    response = requestJson("POST", endPoint + query, null);
 		
 		return response;
 	}
 	
 	/**
+	 * Sends a request of <b>type</b> (GET, PUT or POST) to the Spotify Web API at the
+	 * <b>url</b> and returns the response as a Unirest <i>JsonNode</i>. An empty 
+	 * response body is returned as an empty JSON object ("{}").
 	 * 
-	 * 
+	 * @param type The HTTP method of the request.
 	 * @param url The endPoint and query (if applicable) to make the request.
 	 * @param jObj The JSONObject to put as the body of the request (can be null).
 	 * @return A <i>JsonNode</i> of the response.
 	 */
 	public JsonNode makeSpotifyAPIRequest (String type, String url, JSONObject jObj) {
+		return new JsonNode(bodyOf(sendSpotifyAPIRequest(type, url, jObj)));
+	}
+	
+	/** 
+	 * Makes a GET request to the Spotify Web API at the <b>url</b> and decodes the
+	 * response body once, directly from its bytes, into a <i>DocumentContext</i> that
+	 * <i>Song</i> and <i>Device</i> objects can all be initialized from. An empty 
+	 * response body is decoded as an empty JSON object.
+	 * 
+	 * <p>Threads that get the same <b>url</b> at the same time share one request and 
+	 * one decoded document, which therefore must only be read.
+	 * 
+	 * @param url The endPoint and query (if applicable) to make the request.
+	 * @return The parsed response.
+	 */
+	public DocumentContext getSpotifyAPIDocument (String url) {
 		
-		JsonNode returnObj = null;
+		return documentCoalescer.execute("GET", url, () -> {
+			byte[] body = sendSpotifyAPIRequest("GET", url, null).getBodyBytes();
+			
+			JsonProvider provider = Configuration.defaultConfiguration().jsonProvider();
+			Object json = (body.length == 0) ? provider.createMap() : 
+				provider.parse(new ByteArrayInputStream(body), "UTF-8");
+			
+			return JsonPath.parse(json);
+		});
+	}
+	
+	/** 
+	 * Sends a request and returns the response body as it was received, without 
+	 * parsing it.
+	 * 
+	 * @param type The HTTP method of the request.
+	 * @param url The endPoint and query (if applicable) to make the request.
+	 * @param jObj The JSONObject to put as the body of the request (can be null).
+	 * @return The JSON response as a String.
+	 */
+	private String requestJson (String type, String url, JSONObject jObj) {
+		return bodyOf(sendSpotifyAPIRequest(type, url, jObj));
+	}
+	
+	/** 
+	 * Returns the body of <b>response</b>, or an empty JSON object ("{}") if it 
+	 * has none.
+	 * 
+	 * @param response The response of a request.
+	 * @return The JSON body as a String.
+	 */
+	private static String bodyOf (SpotifyResponse response) {
+		String json = response.getBody();
+		return json.isEmpty() ? "{}" : json;
+	}
+	
+	/**
+	 * Sends a request of <b>type</b> (GET, PUT or POST) to the Spotify Web API at the
+	 * <b>url</b> through the <i>SpotifyTransport</i>, with accessToken and content-type
+	 * headers and a timeout chosen for the endpoint.
+	 * 
+	 * @param type The HTTP method of the request.
+	 * @param url The endPoint and query (if applicable) to make the request.
+	 * @param jObj The JSONObject to put as the body of the request (can be null).
+	 * @return The <i>SpotifyResponse</i>.
+	 */
+	private SpotifyResponse sendSpotifyAPIRequest (String type, String url, 
+			JSONObject jObj) {
 		
 		checkAuthSuccess();
 		
@@ -477,34 +765,124 @@ public class SpotifyAPI {
 			throw new NullPointerException("String \"url\" is null.");
 	 	}
 		
+		String accessToken = sc.getAccessToken();
+		
+		Map<String, String> headers = new HashMap<>();
+		headers.put("Content-Type", "application/json");
+		headers.put("Authorization", "Bearer " + accessToken);
+		
+		String body = (jObj != null && type.equalsIgnoreCase("PUT")) ? 
+				jObj.toJSONString() : null;
+		
+		RequestPriority priority = priorityFor(type, url);
+		String key = (priority == RequestPriority.POLL) ? PLAYBACK_STATE_KEY : null;
+		
+		// identical GETs in flight share one request, and one slot of the scheduler
+		return responseCoalescer.execute(type, url, () -> requestScheduler.execute(
+				priority, key, 
+				() -> sendWithinBudget(type, url, headers, body, accessToken, priority)));
+	}
+	
+	/** 
+	 * Sends a request once the <i>RequestBudget</i> allows it, sending it again with a 
+	 * refreshed access token if rejected with a 401, or after the Retry-After if 
+	 * rejected with a 429 (when short enough for an interactive request).
+	 * 
+	 * @param type The HTTP method of the request.
+	 * @param url The endPoint and query (if applicable) to make the request.
+	 * @param headers The headers of the request.
+	 * @param body The body of the request (can be null).
+	 * @param accessToken The access token in <b>headers</b>.
+	 * @param priority The priority of the request in the budget.
+	 * @return The <i>SpotifyResponse</i>.
+	 */
+	private SpotifyResponse sendWithinBudget (String type, String url, 
+			Map<String, String> headers, String body, String accessToken, 
+			RequestPriority priority) {
+		
+		requestBudget.acquire(priority, url);
+		
 	    // Requests to Spotify API
-		try {
-			if (type.equalsIgnoreCase("GET")) {
-				returnObj = Unirest.get(url)
-						.header("Content-Type", "application/json")
-						.header("Authorization", "Bearer " + sc.getAccessToken())
-						.asJson()
-						.getBody();
-			} else if (type.equalsIgnoreCase("PUT")) {
-				returnObj = Unirest.put(url)
-						.header("Content-Type", "application/json")
-						.header("Authorization", "Bearer " + sc.getAccessToken())
-						.body(jObj)
-						.asJson()
-						.getBody();
-			} else if (type.equalsIgnoreCase("POST")) {
-				returnObj = Unirest.post(url)
-						.header("Content-Type", "application/json")
-						.header("Authorization", "Bearer " + sc.getAccessToken())
-						.asJson()
-						.getBody();
+		SpotifyResponse response = transport.send(type, url, headers, body, 
+				timeoutFor(type, url));
+		
+		// the token expired or was revoked; retries once with a refreshed one
+		if (response.getStatus() == 401) {
+			String refreshed = sc.refreshAfterUnauthorized(accessToken);
+			if (refreshed != null) {
+				headers.put("Authorization", "Bearer " + refreshed);
+				requestBudget.acquire(priority, url);
+				response = transport.send(type, url, headers, body, timeoutFor(type, url));
 			}
+		}
+		
+		// too many requests; every request waits out the Retry-After
+		if (response.getStatus() == 429) {
+			long retryAfter = retryAfterOf(response);
+			requestBudget.onRateLimited(url, retryAfter);
 			
-		} catch (UnirestException e) {
-			throw new SpotifyAPIException("Could not connect to the Internet", e);
+			if (priority == RequestPriority.INTERACTIVE && 
+					retryAfter <= MAX_RETRY_AFTER_WAIT) {
+				requestBudget.acquire(priority, url);
+				response = transport.send(type, url, headers, body, timeoutFor(type, url));
+			}
+			if (response.getStatus() == 429) {
+				throw new RateLimitedException("Rate limited by Spotify for " + retryAfter 
+						+ " seconds.", retryAfter);
+			}
 		}
-
-		return returnObj;
+		return response;
+	}
+	
+	/** 
+	 * Returns the priority of a request in the <i>RequestScheduler</i> and the 
+	 * <i>RequestBudget</i>: the polled playback state is a poll, and everything else is
+	 * sent because the user asked for it.
+	 * 
+	 * @param type The HTTP method of the request.
+	 * @param url The endPoint and query (if applicable) of the request.
+	 * @return The <i>RequestPriority</i> of the request.
+	 */
+	private static RequestPriority priorityFor (String type, String url) {
+		if (type.equalsIgnoreCase("GET") && (url.startsWith(CURRENT_SONG_URL) || 
+				url.equals(PLAYER_URL) || url.startsWith(PLAYER_URL + "?"))) {
+			return RequestPriority.POLL;
+		}
+		return RequestPriority.INTERACTIVE;
+	}
+	
+	/** 
+	 * Returns the seconds of the Retry-After header of a 429 response, or 1 if it has
+	 * none that can be read.
+	 * 
+	 * @param response The response rejected with a 429.
+	 * @return The seconds to wait before sending requests again.
+	 */
+	private static long retryAfterOf (SpotifyResponse response) {
+		String retryAfter = response.getHeader("Retry-After");
+		if (retryAfter == null) {
+			retryAfter = response.getHeader("retry-after");
+		}
+		try {
+			return (retryAfter != null) ? Math.max(1, Long.parseLong(retryAfter.trim())) : 1;
+		} catch (NumberFormatException e) {
+			return 1;
+		}
+	}
+	
+	/** 
+	 * Returns the timeout for a request, which is shortest for the polled playback 
+	 * state so a slow poll gives up before the next one is due.
+	 * 
+	 * @param type The HTTP method of the request.
+	 * @param url The endPoint and query (if applicable) of the request.
+	 * @return The timeout to wait for the response.
+	 */
+	private static Duration timeoutFor (String type, String url) {
+		if (url.startsWith("https://api.spotify.com/v1/me/player")) {
+			return type.equalsIgnoreCase("GET") ? POLL_TIMEOUT : PLAYER_TIMEOUT;
+		}
+		return DEFAULT_TIMEOUT;
 	}
 	
 	/** 
@@ -558,29 +936,89 @@ public class SpotifyAPI {
 	
 	/** 
 	 * Loads the albumCover of a song object from its albumURL if it hasn't already
-	 * been loaded. 
+	 * been loaded. The cover is read from <b>albumArtDiskCache</b> if it was downloaded
+	 * before, and is otherwise downloaded and then cached.
 	 * 
 	 * @param song The <i>Song</i> object to load the album cover of. 
 	 */
 	public BufferedImage loadAlbumCover(String url) {
+		return loadAlbumCover(url, 0);
+	}
+	
+	/** 
+	 * Loads the album cover at <b>url</b>, decoding it only as large as needed to be
+	 * shown at <b>targetSize</b> pixels.
+	 * 
+	 * @param url The URL of the album cover.
+	 * @param targetSize The width and height the cover is shown at, or 0 for full size.
+	 * @return The decoded album cover, or null if it couldn't be decoded.
+	 * @see AlbumArtDecoder#decode(byte[], int)
+	 */
+	public BufferedImage loadAlbumCover(String url, int targetSize) {
+		byte[] imageBytes = loadAlbumCoverBytes(url);
+		BufferedImage albumCover = AlbumArtDecoder.decode(imageBytes, targetSize);
+		
+		// only caches covers that could be read
+		if (albumCover != null) {
+			cacheAlbumCoverBytes(url, imageBytes);
+		}
+		return albumCover;
+	}
+	
+	/** 
+	 * Returns the bytes of the album cover's image file at <b>url</b> without decoding
+	 * them, reading them from <b>albumArtDiskCache</b> if they were downloaded before.
+	 * Downloaded bytes aren't cached until they're known to decode, so the caller must
+	 * pass them to {@code cacheAlbumCoverBytes} once decoded.
+	 * 
+	 * @param url The URL of the album cover.
+	 * @return The bytes of the image file.
+	 */
+	public byte[] loadAlbumCoverBytes(String url) {
 		
-		BufferedImage albumCover = null;
-
 		if (url == null) {
 			throw new IllegalArgumentException("\"url\" parameter must not be null");
 		}
-			
-		// Gets image URL as byte array
-		byte[] imageBytes = Unirest.get(url)
-			.asBytes()
-			.getBody();
 		
-		try {
-			albumCover = ImageIO.read(new ByteArrayInputStream(imageBytes));
-		} catch (IOException e) {
-			e.printStackTrace();
+		AlbumArtDiskCache diskCache = albumArtDiskCache;
+		byte[] imageBytes = (diskCache != null) ? diskCache.get(url) : null;
+		
+		if (imageBytes == null) {
+			// Gets image URL as byte array, superseded by the cover of a newer song
+			SpotifyResponse response = requestScheduler.execute(RequestPriority.PREFETCH,
+					ALBUM_COVER_KEY, () -> transport.send("GET", url, null, null, 
+							IMAGE_TIMEOUT));
+			imageBytes = response.getBodyBytes();
 		}
 		
-		return albumCover;
+		return imageBytes;
+	}
+	
+	/** 
+	 * Writes the bytes of the album cover at <b>url</b> to <b>albumArtDiskCache</b> if
+	 * they aren't already cached. Must only be called once the bytes have been decoded,
+	 * so a truncated or unreadable download is never read back on a later launch.
+	 * 
+	 * @param url The URL of the album cover.
+	 * @param imageBytes The bytes of the image file, which decoded.
+	 */
+	public void cacheAlbumCoverBytes(String url, byte[] imageBytes) {
+		AlbumArtDiskCache diskCache = albumArtDiskCache;
+		if (diskCache != null && !diskCache.contains(url)) {
+			diskCache.put(url, imageBytes);
+		}
+	}
+	
+	/** 
+	 * Sets the cache album covers are read from before being downloaded.
+	 * 
+	 * @param albumArtDiskCache The disk cache to use, or null to always download.
+	 */
+	public void setAlbumArtDiskCache(AlbumArtDiskCache albumArtDiskCache) {
+		this.albumArtDiskCache = albumArtDiskCache;
+	}
+	
+	public AlbumArtDiskCache getAlbumArtDiskCache() {
+		return albumArtDiskCache;
 	}
 }
@@ -0,0 +1,289 @@
+package logic.spotifyapi;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import logic.device.Device;
+import logic.playbackstate.PlaybackState;
+import logic.song.Song;
+
+/**
+ * A non-blocking counterpart to <i>SpotifyAPI</i>. Every endpoint of the wrapped
+ * <i>SpotifyAPI</i> instance is run on a bounded pool of I/O threads and returned as
+ * a <i>CompletableFuture</i>, so callers such as Swing listeners never wait on a
+ * network round trip, and independent requests can be composed to run concurrently.
+ *
+ * <p>Endpoints that return song or device data are additionally decoded on the I/O
+ * thread into <i>Song</i>, <i>Device</i> or <i>PlaybackState</i> objects.
+ *
+ * @see SpotifyAPI
+ */
+public class SpotifyAsyncAPI {
+
+	/** The number of threads that make requests concurrently. */
+	private static final int IO_THREADS = 4;
+
+	/** The number of requests that can wait for a thread before new ones are
+	 * rejected. */
+	private static final int MAX_PENDING_REQUESTS = 64;
+
+	/** The blocking <i>SpotifyAPI</i> instance that makes the requests. */
+	private final SpotifyAPI spotifyAPI;
+
+	/** The bounded executor that all requests are run on. */
+	private final ExecutorService ioExecutor;
+
+	/**
+	 * Wraps <b>spotifyAPI</b> to make its requests on a bounded pool of daemon I/O
+	 * threads, which time out when idle.
+	 *
+	 * @param spotifyAPI The authorized <i>SpotifyAPI</i> instance to make requests with.
+	 */
+	public SpotifyAsyncAPI(SpotifyAPI spotifyAPI) {
+		this(spotifyAPI, createIOExecutor(IO_THREADS, MAX_PENDING_REQUESTS));
+	}
+
+	/**
+	 * Wraps <b>spotifyAPI</b> to make its requests on the <b>ioExecutor</b>.
+	 *
+	 * @param spotifyAPI The authorized <i>SpotifyAPI</i> instance to make requests with.
+	 * @param ioExecutor The executor to run the blocking requests on.
+	 */
+	public SpotifyAsyncAPI(SpotifyAPI spotifyAPI, ExecutorService ioExecutor) {
+		if (spotifyAPI == null) {
+			throw new NullPointerException("SpotifyAPI \"spotifyAPI\" cannot be null.");
+		} else if (ioExecutor == null) {
+			throw new NullPointerException("ExecutorService \"ioExecutor\" cannot be null.");
+		}
+
+		this.spotifyAPI = spotifyAPI;
+		this.ioExecutor = ioExecutor;
+	}
+
+	/**
+	 * Creates a fixed pool of <b>threads</b> daemon threads with a queue of
+	 * <b>maxPending</b> requests. Idle threads time out so that replaced instances
+	 * don't hold onto them.
+	 *
+	 * @param threads The number of threads making requests.
+	 * @param maxPending The number of requests that can be queued.
+	 * @return The bounded executor.
+	 */
+	private static ExecutorService createIOExecutor(int threads, int maxPending) {
+
+		AtomicInteger count = new AtomicInteger();
+		ThreadFactory factory = r -> {
+			Thread t = new Thread(r, "spotify-io-" + count.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		};
+
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+				30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(maxPending), factory);
+		executor.allowCoreThreadTimeOut(true);
+
+		return executor;
+	}
+
+	/**
+	 * Returns the blocking <i>SpotifyAPI</i> instance the requests are made with.
+	 *
+	 * @return The wrapped <i>SpotifyAPI</i>.
+	 */
+	public SpotifyAPI getSpotifyAPI() {
+		return spotifyAPI;
+	}
+
+	/**
+	 * Runs <b>work</b>, which can make several blocking <i>SpotifyAPI</i> requests,
+	 * on the I/O executor. If the executor's queue is full, the returned future
+	 * completes exceptionally with a <i>SpotifyAPIException</i>.
+	 *
+	 * @param <T> The type of the result.
+	 * @param work The blocking work to run.
+	 * @return A <i>CompletableFuture</i> of the result of <b>work</b>.
+	 */
+	public <T> CompletableFuture<T> supplyAsync(Supplier<T> work) {
+		try {
+			return CompletableFuture.supplyAsync(work, ioExecutor);
+		} catch (RejectedExecutionException ree) {
+			return CompletableFuture.failedFuture(
+					new SpotifyAPIException("Too many pending requests.", ree));
+		}
+	}
+
+	/**
+	 * Asynchronously gets the available devices on Spotify.
+	 *
+	 * @return A <i>CompletableFuture</i> of the available <i>Device</i> objects.
+	 * @see SpotifyAPI#fetchDevices()
+	 */
+	public CompletableFuture<Device[]> getDevices() {
+		return supplyAsync(spotifyAPI::fetchDevices);
+	}
+
+	/**
+	 * Asynchronously gets the <i>Device</i> of this computer on Spotify, which completes
+	 * with null if Spotify isn't open on it.
+	 *
+	 * @return A <i>CompletableFuture</i> of this computer's <i>Device</i>.
+	 */
+	public CompletableFuture<Device> getThisDevice() {
+		return getDevices().thenApply(Device::getThisDevice);
+	}
+
+	/**
+	 * Asynchronously transfers the playback to the device of <b>deviceId</b>.
+	 *
+	 * @param play Begins the playback transferred if <i>true</i>.
+	 * @param deviceId The <i>Device</i> object id to transfer the playback to.
+	 * @return A <i>CompletableFuture</i> of the JSON response.
+	 * @see SpotifyAPI#transferPlayback(boolean, String)
+	 */
+	public CompletableFuture<String> transferPlayback(boolean play, String deviceId) {
+		return supplyAsync(() -> spotifyAPI.transferPlayback(play, deviceId));
+	}
+
+	/**
+	 * Asynchronously searches for <b>limit</b> songs matching <b>search</b>.
+	 *
+	 * @param search The keywords of the query.
+	 * @param limit The number of songs to return between 1 and 50.
+	 * @return A <i>CompletableFuture</i> of the <i>Song</i> objects found.
+	 * @see SpotifyAPI#fetchSongs(String, int)
+	 */
+	public CompletableFuture<Song[]> searchForSongs(String search, int limit) {
+		return supplyAsync(() -> spotifyAPI.fetchSongs(search, limit));
+	}
+
+	/**
+	 * Asynchronously gets the current Spotify player state, with its <i>Song</i>
+	 * not having its album cover loaded.
+	 *
+	 * @return A <i>CompletableFuture</i> of the <i>PlaybackState</i> of the player.
+	 * @see SpotifyAPI#fetchPlaybackState()
+	 */
+	public CompletableFuture<PlaybackState> getPlaybackState() {
+		return supplyAsync(spotifyAPI::fetchPlaybackState);
+	}
+
+	/**
+	 * Asynchronously gets the currently playing song.
+	 *
+	 * @return A <i>CompletableFuture</i> of the currently playing <i>Song</i>.
+	 * @see SpotifyAPI#fetchCurrentSong()
+	 */
+	public CompletableFuture<Song> getCurrentSong() {
+		return supplyAsync(spotifyAPI::fetchCurrentSong);
+	}
+
+	/**
+	 * Asynchronously gets the recently played songs as a JSON String.
+	 *
+	 * @param limit The number of songs between 1 and 50.
+	 * @return A <i>CompletableFuture</i> of the JSON response.
+	 * @see SpotifyAPI#getRecentlyPlayed(int)
+	 */
+	public CompletableFuture<String> getRecentlyPlayed(int limit) {
+		return supplyAsync(() -> spotifyAPI.getRecentlyPlayed(limit));
+	}
+
+	/**
+	 * Asynchronously plays <b>song</b> on the <i>Device</i> <b>d</b>, or the active
+	 * device if null.
+	 *
+	 * @param song The <i>Song</i> to play.
+	 * @param d The <i>Device</i> to play from (null = active device).
+	 * @return A <i>CompletableFuture</i> of the JSON response.
+	 * @see SpotifyAPI#play(Song, Device)
+	 */
+	public CompletableFuture<String> play(Song song, Device d) {
+		return supplyAsync(() -> spotifyAPI.play(song, d));
+	}
+
+	/**
+	 * Asynchronously pauses the <i>Device</i> <b>d</b>, or the active device if null.
+	 *
+	 * @param d The <i>Device</i> to pause (null = active device).
+	 * @return A <i>CompletableFuture</i> of the JSON response.
+	 * @see SpotifyAPI#pauseFrom(Device)
+	 */
+	public CompletableFuture<String> pauseFrom(Device d) {
+		return supplyAsync(() -> spotifyAPI.pauseFrom(d));
+	}
+
+	/**
+	 * Asynchronously skips to the next track on the <i>Device</i> <b>d</b>, or the
+	 * active device if null.
+	 *
+	 * @param d The <i>Device</i> to skip on (null = active device).
+	 * @return A <i>CompletableFuture</i> of the JSON response.
+	 * @see SpotifyAPI#nextFrom(Device)
+	 */
+	public CompletableFuture<String> nextFrom(Device d) {
+		return supplyAsync(() -> spotifyAPI.nextFrom(d));
+	}
+
+	/**
+	 * Asynchronously skips to the previous track on the <i>Device</i> <b>d</b>, or the
+	 * active device if null.
+	 *
+	 * @param d The <i>Device</i> to skip on (null = active device).
+	 * @return A <i>CompletableFuture</i> of the JSON response.
+	 * @see SpotifyAPI#previousFrom(Device)
+	 */
+	public CompletableFuture<String> previousFrom(Device d) {
+		return supplyAsync(() -> spotifyAPI.previousFrom(d));
+	}
+
+	/**
+	 * Asynchronously adds the song of <b>uri</b> to the queue of the <i>Device</i>
+	 * <b>d</b>, or the active device if null.
+	 *
+	 * @param uri The Spotify URI of the song to add to the queue.
+	 * @param d The <i>Device</i> to queue on (null = active device).
+	 * @return A <i>CompletableFuture</i> of the JSON response.
+	 * @see SpotifyAPI#addToQueue(String, Device)
+	 */
+	public CompletableFuture<String> addToQueue(String uri, Device d) {
+		return supplyAsync(() -> spotifyAPI.addToQueue(uri, d));
+	}
+
+	/**
+	 * Asynchronously downloads and decodes the album cover at <b>url</b>.
+	 *
+	 * @param url The URL of the album cover.
+	 * @return A <i>CompletableFuture</i> of the album cover.
+	 * @see SpotifyAPI#loadAlbumCover(String)
+	 */
+	public CompletableFuture<BufferedImage> loadAlbumCover(String url) {
+		return supplyAsync(() -> spotifyAPI.loadAlbumCover(url));
+	}
+
+	/**
+	 * Asynchronously gets the bytes of the album cover's image file at <b>url</b>,
+	 * without decoding them.
+	 *
+	 * @param url The URL of the album cover.
+	 * @return A <i>CompletableFuture</i> of the bytes of the image file.
+	 * @see SpotifyAPI#loadAlbumCoverBytes(String)
+	 */
+	public CompletableFuture<byte[]> loadAlbumCoverBytes(String url) {
+		return supplyAsync(() -> spotifyAPI.loadAlbumCoverBytes(url));
+	}
+
+	/**
+	 * Stops accepting requests, letting the ones already submitted finish.
+	 */
+	public void shutdown() {
+		ioExecutor.shutdown();
+	}
+}
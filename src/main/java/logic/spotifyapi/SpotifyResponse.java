@@ -0,0 +1,91 @@
+package logic.spotifyapi;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The status, headers and raw body of a response received through a
+ * <i>SpotifyTransport</i>. Header names are matched case-insensitively.
+ *
+ * @see SpotifyTransport
+ */
+public class SpotifyResponse {
+
+	/** The HTTP status code of the response. */
+	private final int status;
+
+	/** The response headers, keyed case-insensitively. */
+	private final Map<String, List<String>> headers;
+
+	/** The undecoded bytes of the response body. */
+	private final byte[] body;
+
+	/**
+	 * A response of <b>status</b> with the <b>headers</b> and <b>body</b> received.
+	 *
+	 * @param status The HTTP status code.
+	 * @param headers The response headers (can be null).
+	 * @param body The bytes of the body (can be null for no body).
+	 */
+	public SpotifyResponse(int status, Map<String, List<String>> headers, byte[] body) {
+		this.status = status;
+
+		TreeMap<String, List<String>> h = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		if (headers != null) {
+			h.putAll(headers);
+		}
+		this.headers = Collections.unmodifiableMap(h);
+
+		this.body = (body != null) ? body : new byte[0];
+	}
+
+	public int getStatus() {
+		return status;
+	}
+
+	/**
+	 * Returns true if the status code is in the 2xx range.
+	 *
+	 * @return If the request succeeded.
+	 */
+	public boolean isSuccessful() {
+		return status >= 200 && status < 300;
+	}
+
+	/**
+	 * Returns the first value of the header <b>name</b>, or null if it wasn't sent.
+	 *
+	 * @param name The header name, in any case.
+	 * @return The first value of the header.
+	 */
+	public String getHeader(String name) {
+		List<String> values = headers.get(name);
+		return (values == null || values.isEmpty()) ? null : values.get(0);
+	}
+
+	public Map<String, List<String>> getHeaders() {
+		return headers;
+	}
+
+	/**
+	 * Returns the body bytes as received. The array is not copied and must not be
+	 * modified.
+	 *
+	 * @return The undecoded body.
+	 */
+	public byte[] getBodyBytes() {
+		return body;
+	}
+
+	/**
+	 * Decodes the body as a UTF-8 String.
+	 *
+	 * @return The body as a String, which is empty if there was no body.
+	 */
+	public String getBody() {
+		return new String(body, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,64 @@
+package logic.spotifyapi;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * The HTTP client that <i>SpotifyAPI</i> and <i>SpotifyCredentials</i> send their
+ * requests through, so the client can be swapped and tuned without changing the
+ * endpoints. The default, <i>HttpClientTransport</i>, keeps pooled HTTP/2 connections
+ * alive between requests; <i>UnirestTransport</i> can be selected instead by setting
+ * the system property <b>spotifybar.transport</b> to <i>unirest</i>.
+ *
+ * <p>Implementations throw a <i>SpotifyAPIException</i> when a request could not be
+ * sent, and otherwise return the response regardless of its status.
+ *
+ * @see HttpClientTransport
+ * @see UnirestTransport
+ */
+public interface SpotifyTransport {
+
+	/** The hosts that requests are made to, which can be connected to in advance. */
+	String[] SPOTIFY_HOSTS = {"https://api.spotify.com/", "https://accounts.spotify.com/",
+			"https://i.scdn.co/"};
+
+	/**
+	 * Sends a request and waits for its response.
+	 *
+	 * @param method The HTTP method, such as "GET", "PUT" or "POST".
+	 * @param url The endPoint and query (if applicable) to make the request.
+	 * @param headers The request headers (can be empty).
+	 * @param body The request body (can be null for no body).
+	 * @param timeout How long to wait for the response before failing.
+	 * @return The <i>SpotifyResponse</i> received.
+	 */
+	SpotifyResponse send(String method, String url, Map<String, String> headers,
+			String body, Duration timeout);
+
+	/**
+	 * Opens connections to the <b>hosts</b> in the background so that the first
+	 * requests to them don't pay for the TLS handshake. Does nothing by default.
+	 *
+	 * @param hosts The base URLs of the hosts to connect to.
+	 */
+	default void prewarm(String... hosts) {}
+
+	/**
+	 * Returns the transport shared by all requests, selected by the system property
+	 * <b>spotifybar.transport</b>.
+	 *
+	 * @return The shared <i>SpotifyTransport</i>.
+	 */
+	static SpotifyTransport getDefault() {
+		return DefaultHolder.INSTANCE;
+	}
+
+	/** Lazily creates the shared transport. */
+	class DefaultHolder {
+		private static final SpotifyTransport INSTANCE =
+				"unirest".equalsIgnoreCase(System.getProperty("spotifybar.transport")) ?
+						new UnirestTransport() : new HttpClientTransport();
+
+		private DefaultHolder() {}
+	}
+}
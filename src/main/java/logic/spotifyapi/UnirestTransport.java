@@ -0,0 +1,62 @@
+package logic.spotifyapi;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import kong.unirest.Header;
+import kong.unirest.HttpRequestWithBody;
+import kong.unirest.HttpResponse;
+import kong.unirest.Unirest;
+import kong.unirest.UnirestException;
+
+/**
+ * A <i>SpotifyTransport</i> that sends requests through the static global
+ * <i>Unirest</i> client, as all requests were made before transports could be
+ * swapped. Selected by setting the system property <b>spotifybar.transport</b> to
+ * <i>unirest</i>.
+ *
+ * @see SpotifyTransport
+ */
+public class UnirestTransport implements SpotifyTransport {
+
+	@Override
+	public SpotifyResponse send(String method, String url, Map<String, String> headers,
+			String body, Duration timeout) {
+
+		if (method == null) {
+			throw new NullPointerException("String \"method\" cannot be null.");
+		} else if (url == null) {
+			throw new NullPointerException("String \"url\" is null.");
+		}
+
+		HttpRequestWithBody request = Unirest.request(method.toUpperCase(), url);
+
+		if (timeout != null) {
+			request.connectTimeout((int) timeout.toMillis())
+					.socketTimeout((int) timeout.toMillis());
+		}
+		if (headers != null) {
+			headers.forEach(request::header);
+		}
+
+		try {
+			HttpResponse<byte[]> response = (body == null) ? request.asBytes() :
+					request.body(body).asBytes();
+
+			Map<String, List<String>> responseHeaders = new HashMap<>();
+			for (Header h : response.getHeaders().all()) {
+				responseHeaders.computeIfAbsent(h.getName(), k -> new ArrayList<>())
+						.add(h.getValue());
+			}
+
+			return new SpotifyResponse(response.getStatus(), responseHeaders,
+					response.getBody());
+
+		} catch (UnirestException e) {
+			throw new SpotifyAPIException("Could not connect to the Internet", e);
+		}
+	}
+}
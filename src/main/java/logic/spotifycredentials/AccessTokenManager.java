@@ -0,0 +1,171 @@
+package logic.spotifycredentials;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Keeps the access token of a <i>SpotifyCredentials</i> fresh. Each token published is
+ * refreshed in the background a margin before the {@code expires_in} Spotify gave it,
+ * rather than when a request happens to check its age, and is published through an
+ * <i>AtomicReference</i> so that the threads sending requests read it without taking
+ * a lock.
+ *
+ * <p>Refreshes are single-flight: a refresh asked for while another is running (such
+ * as by several requests rejected with a 401 at once) waits for that one rather than
+ * sending another request for a token.
+ */
+public class AccessTokenManager {
+
+	/** How long before a token expires it is refreshed, in seconds. */
+	private static final long REFRESH_MARGIN = 60;
+
+	/** The soonest a token is refreshed after being published, in seconds. */
+	private static final long MIN_REFRESH_DELAY = 10;
+
+	/** How long to wait to try again after a scheduled refresh failed, in seconds. */
+	private static final long RETRY_DELAY = 30;
+
+	/** How long a request rejected with a 401 waits for the refreshed token, in
+	 * seconds. */
+	private static final long REFRESH_WAIT = 15;
+
+	/** Refreshes the scheduled tokens, shared by every manager. */
+	private static final ScheduledExecutorService scheduler =
+			Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread t = new Thread(r, "token-refresh");
+				t.setDaemon(true);
+				return t;
+			});
+
+	/** The current token, or null if none has been published. */
+	private final AtomicReference<String> current = new AtomicReference<>();
+
+	/** The refresh running, or null if none is. */
+	private final AtomicReference<CompletableFuture<String>> inFlight =
+			new AtomicReference<>();
+
+	/** Requests a new token and publishes it, returning if one was granted. */
+	private final BooleanSupplier refresher;
+
+	/** The next refresh scheduled, or null if none is. */
+	private ScheduledFuture<?> scheduledRefresh;
+
+	/**
+	 * Creates a manager that refreshes tokens with <b>refresher</b>, which must
+	 * request a new token and publish it with {@code publish(String, long)}.
+	 *
+	 * @param refresher Requests and publishes a new token, returning <i>true</i> if one
+	 * was granted.
+	 */
+	public AccessTokenManager(BooleanSupplier refresher) {
+		if (refresher == null) {
+			throw new NullPointerException("BooleanSupplier \"refresher\" is null.");
+		}
+		this.refresher = refresher;
+	}
+
+	/**
+	 * Publishes <b>token</b> as the current token and schedules it to be refreshed a
+	 * margin before it expires.
+	 *
+	 * @param token The access token granted.
+	 * @param expiresIn The seconds until it expires, from the {@code expires_in} of
+	 * the response.
+	 */
+	public void publish(String token, long expiresIn) {
+		if (token == null) {
+			throw new NullPointerException("String \"token\" is null.");
+		}
+
+		current.set(token);
+		schedule(Math.max(MIN_REFRESH_DELAY, expiresIn - REFRESH_MARGIN));
+	}
+
+	private synchronized void schedule(long delay) {
+		if (scheduledRefresh != null) {
+			scheduledRefresh.cancel(false);
+		}
+		scheduledRefresh = scheduler.schedule(() -> {
+			refresh().whenComplete((token, ex) -> {
+				if (ex != null || token == null) {
+					System.out.println("Could not refresh the access token, trying again "
+							+ "in " + RETRY_DELAY + " seconds.");
+					schedule(RETRY_DELAY);
+				}
+			});
+		}, delay, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Returns the current token without waiting for a refresh.
+	 *
+	 * @return The access token, or null if none has been published.
+	 */
+	public String getToken() {
+		return current.get();
+	}
+
+	/**
+	 * Refreshes the token, or joins the refresh already running.
+	 *
+	 * @return A <i>CompletableFuture</i> of the refreshed token, which is null if no
+	 * token was granted.
+	 */
+	public CompletableFuture<String> refresh() {
+		CompletableFuture<String> refresh = inFlight.get();
+		if (refresh != null) {
+			return refresh;
+		}
+
+		CompletableFuture<String> started = new CompletableFuture<>();
+		if (!inFlight.compareAndSet(null, started)) {
+			// another thread started one first
+			return refresh();
+		}
+
+		CompletableFuture.runAsync(() -> {
+			// cleared before completing, so a refresh asked for after this one
+			// completes starts another
+			try {
+				String token = refresher.getAsBoolean() ? getToken() : null;
+				inFlight.compareAndSet(started, null);
+				started.complete(token);
+			} catch (RuntimeException e) {
+				inFlight.compareAndSet(started, null);
+				started.completeExceptionally(e);
+			}
+		}, scheduler);
+		return started;
+	}
+
+	/**
+	 * Returns a token to retry a request that was rejected with a 401 with: the current
+	 * token if another thread has refreshed it since <b>rejected</b> was sent, or else
+	 * the token of a refresh (shared by every thread asking at the same time).
+	 *
+	 * @param rejected The token the rejected request was sent with.
+	 * @return The token to retry with, or null if none was granted in time.
+	 */
+	public String refreshAfterUnauthorized(String rejected) {
+		String token = getToken();
+		if (token != null && !token.equals(rejected)) {
+			return token;
+		}
+
+		try {
+			return refresh().get(REFRESH_WAIT, TimeUnit.SECONDS);
+		} catch (ExecutionException | TimeoutException e) {
+			System.out.println("Could not refresh the access token: " + e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return null;
+	}
+}
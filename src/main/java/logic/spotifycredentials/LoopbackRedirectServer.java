@@ -0,0 +1,248 @@
+package logic.spotifycredentials;
+
+import java.awt.Desktop;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import renderer.approvalbrowser.RedirectURIListener;
+
+/**
+ * Receives the redirect of the <i>Authorization Code + PKCE</i> flow on a small HTTP
+ * server listening on the loopback address, as a lighter alternative to the
+ * <i>ApprovalBrowser</i>: the authorization URL is opened in the user's own browser,
+ * and Spotify redirects it to {@code http://127.0.0.1:<port>/callback}, where the
+ * query values are read. No JavaFX <i>WebView</i> is created.
+ *
+ * <p>The redirect URI must be registered for the app's client ID in the Spotify
+ * developer dashboard, so the port is fixed ({@code spotifybar.redirectPort}, 8888 by
+ * default). Enabled with the system property {@code spotifybar.loopbackAuth} set to
+ * {@code true}.
+ */
+public class LoopbackRedirectServer implements SpotifyCredentialsService {
+
+	/** The system property that enables the loopback redirect. */
+	public static final String ENABLED_PROPERTY = "spotifybar.loopbackAuth";
+
+	/** The port listened on unless set with {@code spotifybar.redirectPort}. */
+	public static final int DEFAULT_PORT = 8888;
+
+	/** The path of the redirect URI. */
+	private static final String CALLBACK_PATH = "/callback";
+
+	/** How long in milliseconds the user has to approve access before the server
+	 * stops and the timeout listeners are called. */
+	private static final long TIMEOUT = 5 * 60_000;
+
+	/** The page shown in the user's browser once redirected. */
+	private static final byte[] DONE_PAGE = ("<!DOCTYPE html><html><head><title>Spotify Bar"
+			+ "</title></head><body style=\"font-family:sans-serif;text-align:center;"
+			+ "margin-top:20%\"><h2>Spotify Bar</h2><p>You can close this tab.</p>"
+			+ "</body></html>").getBytes(StandardCharsets.UTF_8);
+
+	private final HttpServer server;
+
+	/** The query parameters to read from the redirect. */
+	private final String[] queryParams;
+
+	private final List<RedirectURIListener> listeners = new CopyOnWriteArrayList<>();
+
+	private final List<Runnable> timeoutListeners = new CopyOnWriteArrayList<>();
+
+	/** Stops the server if the user doesn't approve or deny access in time. */
+	private final Timer timeoutTimer = new Timer("loopback-redirect-timeout", true);
+
+	private volatile String[] queryValues;
+
+	private volatile boolean closed;
+
+	/**
+	 * Starts listening on the loopback address for the redirect, which the values of
+	 * <b>queryParams</b> are read from.
+	 *
+	 * @param queryParams The query parameters to read from the redirect.
+	 * @throws IOException If the port couldn't be listened on.
+	 */
+	public LoopbackRedirectServer(String[] queryParams) throws IOException {
+		if (queryParams == null) {
+			throw new NullPointerException("String[] \"queryParams\" is null.");
+		}
+		this.queryParams = queryParams;
+
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+				Integer.getInteger("spotifybar.redirectPort", DEFAULT_PORT)), 0);
+		server.createContext(CALLBACK_PATH, this::handleRedirect);
+		server.setExecutor(Executors.newSingleThreadExecutor(r -> {
+			Thread t = new Thread(r, "loopback-redirect");
+			t.setDaemon(true);
+			return t;
+		}));
+		server.start();
+	}
+
+	/**
+	 * Returns if the loopback redirect is enabled with the system property
+	 * {@code spotifybar.loopbackAuth}.
+	 *
+	 * @return <i>true</i> if the loopback redirect should be used.
+	 */
+	public static boolean isEnabled() {
+		return Boolean.getBoolean(ENABLED_PROPERTY);
+	}
+
+	/**
+	 * Returns the redirect URI to send with the authorization URL.
+	 *
+	 * @return The URI of the server's callback.
+	 */
+	public String getRedirectURI() {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + CALLBACK_PATH;
+	}
+
+	/**
+	 * Opens <b>url</b> in the user's browser, or prints it if no browser can be
+	 * opened, and starts the timeout.
+	 *
+	 * @param url The authorization URL.
+	 */
+	public void open(String url) {
+		timeoutTimer.schedule(new TimerTask() {
+			@Override
+			public void run() {
+				if (!closed && queryValues == null) {
+					System.out.println("Timed out waiting for access to be approved.");
+					close();
+					for (Runnable r : timeoutListeners) {
+						r.run();
+					}
+				}
+			}
+		}, TIMEOUT);
+
+		try {
+			if (Desktop.isDesktopSupported() &&
+					Desktop.getDesktop().isSupported(Desktop.Action.BROWSE)) {
+				Desktop.getDesktop().browse(new URI(url));
+				return;
+			}
+		} catch (Exception e) {
+			System.out.println("Could not open the browser: " + e);
+		}
+		System.out.println("Open this URL to approve access to Spotify:\n" + url);
+	}
+
+	private void handleRedirect(HttpExchange exchange) throws IOException {
+		try {
+			String query = exchange.getRequestURI().getRawQuery();
+			Map<String, String> params = parseQuery(query);
+
+			// the favicon or a stray request
+			if (!params.containsKey("error") && !params.containsKey(queryParams[0])) {
+				exchange.sendResponseHeaders(404, -1);
+				return;
+			}
+
+			exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+			exchange.sendResponseHeaders(200, DONE_PAGE.length);
+			try (OutputStream out = exchange.getResponseBody()) {
+				out.write(DONE_PAGE);
+			}
+
+			// the same as the ApprovalBrowser: empty values if the user denied access
+			String[] values = new String[queryParams.length];
+			for (int i = 0; i < queryParams.length; i++) {
+				values[i] = params.containsKey("error") ? "" :
+						params.getOrDefault(queryParams[i], "");
+			}
+
+			if (queryValues == null) {
+				queryValues = values;
+				timeoutTimer.cancel();
+
+				// off the server's thread, as a listener may close the server
+				Thread notify = new Thread(() -> {
+					for (RedirectURIListener r : listeners) {
+						r.redirected();
+					}
+				}, "loopback-redirect-listeners");
+				notify.setDaemon(true);
+				notify.start();
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private static Map<String, String> parseQuery(String query) {
+		Map<String, String> params = new HashMap<>();
+		if (query == null || query.isEmpty()) {
+			return params;
+		}
+
+		for (String pair : query.split("&")) {
+			int eq = pair.indexOf('=');
+			String name = (eq >= 0) ? pair.substring(0, eq) : pair;
+			String value = (eq >= 0) ? pair.substring(eq + 1) : "";
+			params.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+					URLDecoder.decode(value, StandardCharsets.UTF_8));
+		}
+		return params;
+	}
+
+	@Override
+	public void addRedirectURIListener(RedirectURIListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Adds a listener called if the user doesn't approve or deny access in time, as
+	 * closing the <i>ApprovalBrowser</i> would.
+	 *
+	 * @param listener The <i>Runnable</i> to call.
+	 */
+	public void addTimeoutListener(Runnable listener) {
+		timeoutListeners.add(listener);
+	}
+
+	/**
+	 * Returns the values of the query parameters read from the redirect, which are
+	 * empty if the user denied access.
+	 *
+	 * @return The query values in a String array.
+	 */
+	@Override
+	public String[] getQueryValues() {
+		if (queryValues == null) {
+			throw new RuntimeException("LoopbackRedirectServer must be redirected to "
+					+ "before parsing the query values. A listener can be added for when "
+					+ "it is redirected to.");
+		}
+		return queryValues;
+	}
+
+	/**
+	 * Stops the server.
+	 */
+	@Override
+	public void close() {
+		if (!closed) {
+			closed = true;
+			timeoutTimer.cancel();
+			server.stop(0);
+		}
+	}
+}
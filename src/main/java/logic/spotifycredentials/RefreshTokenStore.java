@@ -0,0 +1,231 @@
+package logic.spotifycredentials;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.security.spec.KeySpec;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import logic.appdirectories.AppDirectories;
+
+/**
+ * Keeps the refresh token of the <i>Authorization Code + PKCE</i> flow on disk between
+ * launches, so that a launch can get an access token with the refresh token rather
+ * than asking the user to approve access again in the <i>ApprovalBrowser</i>.
+ *
+ * <p>The token is encrypted with AES-GCM, with a key derived (PBKDF2) from the user's
+ * account and computer and a random salt made the first time a token is saved. The
+ * salt is kept in its own file, and both files are only readable by the user where
+ * the file system allows it. As the key is derived from what is on the computer, the
+ * encryption keeps the token from being read if the file is copied elsewhere or by
+ * another user, not by a program running as the same user.
+ *
+ * <p>Reading and writing fail silently (the user is just asked to approve access
+ * again), as a token that can't be kept shouldn't stop the player from starting.
+ */
+public class RefreshTokenStore {
+
+	/** The version of the format of the token file. */
+	private static final byte FORMAT_VERSION = 1;
+
+	private static final String CIPHER = "AES/GCM/NoPadding";
+	private static final int IV_BYTES = 12;
+	private static final int TAG_BITS = 128;
+	private static final int KEY_BITS = 256;
+	private static final int SALT_BYTES = 16;
+	private static final int KEY_ITERATIONS = 100_000;
+
+	/** Authenticated with the token, so a file made for something else isn't read. */
+	private static final byte[] ASSOCIATED_DATA =
+			"spotifybar-refresh-token".getBytes(StandardCharsets.UTF_8);
+
+	/** The file of the encrypted token. */
+	private final Path tokenFile;
+
+	/** The file of the salt of the key. */
+	private final Path saltFile;
+
+	private final SecureRandom random = new SecureRandom();
+
+	/**
+	 * Creates a store of the token in <b>directory</b>, which must exist.
+	 *
+	 * @param directory The directory to keep the files in.
+	 */
+	public RefreshTokenStore(Path directory) {
+		if (directory == null) {
+			throw new NullPointerException("Path \"directory\" is null.");
+		}
+		this.tokenFile = directory.resolve("refresh-token.bin");
+		this.saltFile = directory.resolve("refresh-token.salt");
+	}
+
+	/**
+	 * Returns the store in the <i>credentials</i> subdirectory of the app's data
+	 * directory, or null if the directory couldn't be created.
+	 *
+	 * @return The <i>RefreshTokenStore</i> or null.
+	 */
+	public static RefreshTokenStore getDefault() {
+		try {
+			return new RefreshTokenStore(
+					AppDirectories.createDataDirectory("credentials"));
+		} catch (IOException | SecurityException e) {
+			System.out.println("The login won't be remembered: " + e);
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the refresh token saved, or null if none was saved or it couldn't be
+	 * decrypted (such as after being copied from another computer).
+	 *
+	 * @return The refresh token or null.
+	 */
+	public synchronized String load() {
+		try {
+			byte[] file = Files.readAllBytes(tokenFile);
+			byte[] salt = Files.readAllBytes(saltFile);
+
+			ByteBuffer in = ByteBuffer.wrap(file);
+			if (file.length <= 1 + IV_BYTES || in.get() != FORMAT_VERSION) {
+				return null;
+			}
+			byte[] iv = new byte[IV_BYTES];
+			in.get(iv);
+			byte[] encrypted = new byte[in.remaining()];
+			in.get(encrypted);
+
+			Cipher cipher = Cipher.getInstance(CIPHER);
+			cipher.init(Cipher.DECRYPT_MODE, deriveKey(salt),
+					new GCMParameterSpec(TAG_BITS, iv));
+			cipher.updateAAD(ASSOCIATED_DATA);
+
+			return new String(cipher.doFinal(encrypted), StandardCharsets.UTF_8);
+
+		} catch (NoSuchFileException e) {
+			// no token saved
+		} catch (IOException e) {
+			System.out.println("Could not read the saved login: " + e);
+		} catch (GeneralSecurityException e) {
+			System.out.println("Could not decrypt the saved login: " + e);
+		}
+		return null;
+	}
+
+	/**
+	 * Encrypts and saves <b>refreshToken</b>, replacing any token saved.
+	 *
+	 * @param refreshToken The refresh token received from Spotify.
+	 */
+	public synchronized void save(String refreshToken) {
+		if (refreshToken == null || refreshToken.isEmpty()) {
+			return;
+		}
+
+		try {
+			byte[] salt = loadOrCreateSalt();
+
+			byte[] iv = new byte[IV_BYTES];
+			random.nextBytes(iv);
+
+			Cipher cipher = Cipher.getInstance(CIPHER);
+			cipher.init(Cipher.ENCRYPT_MODE, deriveKey(salt),
+					new GCMParameterSpec(TAG_BITS, iv));
+			cipher.updateAAD(ASSOCIATED_DATA);
+			byte[] encrypted = cipher.doFinal(
+					refreshToken.getBytes(StandardCharsets.UTF_8));
+
+			ByteBuffer out = ByteBuffer.allocate(1 + IV_BYTES + encrypted.length);
+			out.put(FORMAT_VERSION).put(iv).put(encrypted);
+
+			writeOwnerOnly(tokenFile, out.array());
+
+		} catch (IOException e) {
+			System.out.println("Could not save the login: " + e);
+		} catch (GeneralSecurityException e) {
+			System.out.println("Could not encrypt the login: " + e);
+		}
+	}
+
+	/**
+	 * Deletes the token saved, such as after Spotify rejected it.
+	 */
+	public synchronized void clear() {
+		try {
+			Files.deleteIfExists(tokenFile);
+		} catch (IOException e) {
+			System.out.println("Could not delete the saved login: " + e);
+		}
+	}
+
+	private byte[] loadOrCreateSalt() throws IOException {
+		try {
+			byte[] salt = Files.readAllBytes(saltFile);
+			if (salt.length == SALT_BYTES) {
+				return salt;
+			}
+		} catch (NoSuchFileException e) {
+			// made below
+		}
+
+		byte[] salt = new byte[SALT_BYTES];
+		random.nextBytes(salt);
+		writeOwnerOnly(saltFile, salt);
+		return salt;
+	}
+
+	/**
+	 * Derives the key from the user's account and computer, and <b>salt</b>.
+	 */
+	private static SecretKey deriveKey(byte[] salt) throws GeneralSecurityException {
+		String local = System.getProperty("user.name") + '\0'
+				+ System.getProperty("user.home") + '\0'
+				+ System.getProperty("os.name") + '\0'
+				+ System.getProperty("os.arch");
+
+		KeySpec spec = new PBEKeySpec(local.toCharArray(), salt, KEY_ITERATIONS, KEY_BITS);
+		byte[] key = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256")
+				.generateSecret(spec).getEncoded();
+		return new SecretKeySpec(key, "AES");
+	}
+
+	/**
+	 * Writes <b>bytes</b> to a temporary file only the user can read, then moves it
+	 * into place, so the file is never read half written.
+	 */
+	private static void writeOwnerOnly(Path file, byte[] bytes) throws IOException {
+		Path temp = Files.createTempFile(file.getParent(), "credentials", ".tmp");
+		try {
+			if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+				Files.setPosixFilePermissions(temp,
+						PosixFilePermissions.fromString("rw-------"));
+			}
+			Files.write(temp, bytes);
+
+			try {
+				Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE,
+						StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+}
@@ -5,6 +5,7 @@ import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.event.WindowListener;
 import java.awt.event.WindowStateListener;
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -13,23 +14,28 @@ import java.net.UnknownHostException;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.swing.JFrame;
 
 import kong.unirest.JsonNode;
-import kong.unirest.Unirest;
-import kong.unirest.UnirestException;
 import kong.unirest.json.JSONException;
+import logic.spotifyapi.SpotifyResponse;
+import logic.spotifyapi.SpotifyTransport;
 import renderer.approvalbrowser.ApprovalBrowser;
 
 public class SpotifyCredentials  {
 	
 	/** The instance that loads the authorization URL in a JavaFX WebView and 
-	 * parses the query parameters from the tail of the redirectURI when loaded. 
+	 * parses the query parameters from the tail of the redirectURI when loaded, or
+	 * that receives the redirect on the loopback address if enabled. 
 	 * 
-	 * @see ApprovalBrowser */
-	private ApprovalBrowser ap;
+	 * @see ApprovalBrowser
+	 * @see LoopbackRedirectServer */
+	private SpotifyCredentialsService ap;
 	
 	/** A generated String of 43-128 characters that can contain letters, digits,
 	 *  (_), (.), (-), or (~). */
@@ -41,11 +47,16 @@ public class SpotifyCredentials  {
 	
 	/** A token given after PKCE authorization that is sent to request another access
 	 * token. */
-	private String refreshToken;
+	private volatile String refreshToken;
 	
-	/** A token given after authorization of some kind to the Spotify Web API that
-	 * is sent as a header with all requests to access data. */
-	private String accessToken;
+	/** Holds the token given after authorization of some kind to the Spotify Web API
+	 * that is sent as a header with all requests to access data, and refreshes it 
+	 * before it expires. */
+	private final AccessTokenManager tokenManager = new AccessTokenManager(() -> 
+			requestAccessToken(this.authCodeFlow ? CODE_REFRESH : CLIENT_AUTHORIZATION));
+	
+	/** The seconds an access token lasts if the response doesn't say. */
+	private static final long DEFAULT_EXPIRES_IN = 3600;
 	
 	/** The functional interface to be implemented when PKCE flow completes */
 	private Runnable init;
@@ -72,6 +83,24 @@ public class SpotifyCredentials  {
     /** Is true if authorization completes successfully. */
     private boolean authSuccessful;
     
+    /** The endpoint that access tokens are requested from. */
+    private static final String TOKEN_URL = "https://accounts.spotify.com/api/token";
+    
+    /** The timeout of access token requests. */
+    private static final Duration TOKEN_TIMEOUT = Duration.ofSeconds(10);
+    
+    /** The HTTP client token requests are sent through, shared with <i>SpotifyAPI</i> 
+     * so they reuse its connections. */
+    private SpotifyTransport transport = SpotifyTransport.getDefault();
+    
+    /** Keeps the refresh token between launches, so the user isn't asked to approve
+     * access each launch (null if it can't be kept). */
+    private RefreshTokenStore tokenStore;
+    
+    /** Is true if the last refresh was rejected with an {@code invalid_grant}, meaning
+     * the refresh token was revoked or expired rather than the request failing. */
+    private volatile boolean refreshTokenRejected;
+    
     /** 
 	 * Empty constructor that gets no authorization to the Spotify Web API.
 	 */
@@ -142,6 +171,10 @@ public class SpotifyCredentials  {
 	 * doesn't complete the PKCE flow, so it takes a parameter of Runnable interface 
 	 * <b>init</b> to call its run() method when when the PKCE flow completes.
 	 * 
+	 * <p>If a refresh token was saved by a previous launch, an access token is first
+	 * requested with it, and <b>init</b> is run right away without creating the 
+	 * browser (or loading JavaFX) if it's granted.
+	 * 
 	 * @param init a Runnable interface to call its run() when the PKCE flow is 
 	 * completed, as a Spotify user must first approve of access to it.
 	 */
@@ -149,6 +182,13 @@ public class SpotifyCredentials  {
 		
 		this.init = init;
 		
+		if (authorizeWithSavedToken()) {
+			if (init != null) {
+				init.run();
+			}
+			return;
+		}
+		
 		// ---------------------------------------------------------------------------
 		
 		/* Generates code challenge by first creating code verifier (43-128
@@ -207,11 +247,25 @@ public class SpotifyCredentials  {
 		
 		// -----------------------------------------------------------------------------
 		
-		try {
-			redirectURI = new URI("https://www.helpscout.com/images/blog/2019/"
-					+ "dec/how-to-write-a-killer-thank-you-note.png").toString();
-		} catch (URISyntaxException e) {
-			e.printStackTrace();
+		String[] paramsToReturn = {"code"};
+		LoopbackRedirectServer loopback = null;
+		if (LoopbackRedirectServer.isEnabled()) {
+			try {
+				loopback = new LoopbackRedirectServer(paramsToReturn);
+				redirectURI = loopback.getRedirectURI();
+			} catch (IOException e) {
+				System.out.println("Could not listen for the redirect, so using the "
+						+ "ApprovalBrowser: " + e);
+			}
+		}
+		
+		if (loopback == null) {
+			try {
+				redirectURI = new URI("https://www.helpscout.com/images/blog/2019/"
+						+ "dec/how-to-write-a-killer-thank-you-note.png").toString();
+			} catch (URISyntaxException e) {
+				e.printStackTrace();
+			}
 		}
 		
 		String scope = "user-read-private "
@@ -233,26 +287,77 @@ public class SpotifyCredentials  {
 				 + "&show_dialog=" + "false";
 		
 		query = encodeInURLFormat(query).replace(' ', '+');
-		String[] paramsToReturn = {"code"};
 		
-		ap = new ApprovalBrowser(endPoint + query, redirectURI, paramsToReturn);
+		if (loopback != null) {
+			ap = loopback;
+			
+			// user didn't approve or deny access in the browser in time
+			loopback.addTimeoutListener(init);
+		} else {
+			ApprovalBrowser browser = new ApprovalBrowser(endPoint + query, redirectURI, 
+					paramsToReturn);
+			ap = browser;
+			
+			// user closed ap without granting access
+			browser.addWindowListener(new WindowAdapter() {
+				public void windowClosing(WindowEvent e) {
+					init.run();
+				}
+			});
+		}
 		
 		ap.addRedirectURIListener(() -> {
 			requestAccessToken(CODE_AUTHORIZATION);
 		});
 		
-		// user closed ap without granting access
-		ap.addWindowListener(new WindowAdapter() {
-			public void windowClosing(WindowEvent e) {
-				init.run();
-			}
-		});
+		if (loopback != null) {
+			loopback.open(endPoint + query);
+		}
 		
 		// wait for Spotify user to approve or deny access, which will load the
 		// redirectURI if approved and call requestAccessToken() for auth
 		
 	}
 	
+	/** 
+	 * Requests an access token with the refresh token saved by a previous launch, 
+	 * deleting the saved token if Spotify rejects it as an {@code invalid_grant}. Any 
+	 * other failure, such as Spotify being briefly unavailable, keeps the saved token
+	 * for the next launch.
+	 * 
+	 * @return <i>true</i> if an access token was granted.
+	 */
+	private boolean authorizeWithSavedToken () {
+		tokenStore = RefreshTokenStore.getDefault();
+		if (tokenStore == null) {
+			return false;
+		}
+		
+		String savedToken = tokenStore.load();
+		if (savedToken == null) {
+			return false;
+		}
+		
+		refreshToken = savedToken;
+		try {
+			if (requestAccessToken(CODE_REFRESH)) {
+				authSuccessful = true;
+				return true;
+			}
+			if (refreshTokenRejected) { // revoked or expired
+				tokenStore.clear();
+			} else {
+				System.out.println("Could not refresh the saved login; it's kept for "
+						+ "the next launch.");
+			}
+		} catch (RuntimeException e) {
+			System.out.println("Could not refresh the saved login: " + e.getMessage());
+		}
+		
+		refreshToken = null;
+		return false;
+	}
+	
 	/** 
 	 * <i>Only applicable when using Authorization Code flow</i>. Every
 	 * access token received with PKCE flow has an expiration of 6 minutes
@@ -265,7 +370,7 @@ public class SpotifyCredentials  {
 	 */
 	public String getRefreshToken() {
 		if (authCodeFlow) {
-			requestAccessToken(CODE_REFRESH);
+			tokenManager.refresh().join();
 			return getAccessToken();
 		} else {
 			// throws error if not Authorization Code + PKCE flow
@@ -283,9 +388,9 @@ public class SpotifyCredentials  {
 	 * @param flow An <i>int</i> that designates the flow to get the access token. All 
 	 * flow values are constants of this class.
 	 * 
-	 * @return The access token to send as a header with requests.
+	 * @return <i>true</i> if an access token was received.
 	 */
-	private void requestAccessToken (int flow) {
+	private boolean requestAccessToken (int flow) {
 	   
         // Encode ^ in base64 for the authorization format of Spotify
         String authorization = "Basic " + Base64.getUrlEncoder().encodeToString(
@@ -295,26 +400,21 @@ public class SpotifyCredentials  {
         	(flow == CLIENT_AUTHORIZATION) ? "client_credentials" :
         		"refresh_token";
         
-		// Use Unirest to receive a perceived JSonNode package holding accessToken
+		// Uses the SpotifyTransport to receive a JsonNode package holding accessToken
         JsonNode response = null;
         
         // Client Access Token
         switch (flow) {
         	case CLIENT_AUTHORIZATION:
 	        	try {
-					response = Unirest.post("https://accounts.spotify.com/api/token")
-							.header("content-type", "application/x-www-form-urlencoded")
-							.header("Authorization", authorization)
-							.field(encodeInURLFormat("grant_type"), 
-									encodeInURLFormat(grantType))
-							.asJson()
-							.getBody();
+					response = postTokenRequest(authorization, 
+							"grant_type", grantType);
 				
-					accessToken = response.getObject()
-						    .getString("access_token");
+					publishAccessToken(response);
 					
 	        	} catch (JSONException je) {
 					System.out.print(response.toPrettyString());
+					return false;
 	        	}
 	        	
 	        	authSuccessful = true;
@@ -336,23 +436,20 @@ public class SpotifyCredentials  {
 	        	
 	        	try {
 	        		
-					response = Unirest.post("https://accounts.spotify.com/api/token")
-							.header("content-type", "application/x-www-form-urlencoded")
-							.header("Authorization", authorization)
-							.field(encodeInURLFormat("grant_type"), 
-									encodeInURLFormat(grantType))
-							.field(encodeInURLFormat("code"), encodeInURLFormat(code))
-							.field(encodeInURLFormat("redirect_uri"), 
-									encodeInURLFormat(redirectURI))
-							.field("client_id", spotifyClientID)
-							.field("code_verifier", codeVerifier)
-							.asJson()
-							.getBody();
+					response = postTokenRequest(authorization, 
+							"grant_type", grantType,
+							"code", code,
+							"redirect_uri", redirectURI,
+							"client_id", spotifyClientID,
+							"code_verifier", codeVerifier);
 				
-					accessToken = response.getObject()
-						    .getString("access_token");
 					refreshToken = response.getObject()
 							.getString("refresh_token");
+					publishAccessToken(response);
+					
+					if (tokenStore != null) {
+						tokenStore.save(refreshToken);
+					}
 						
 				} catch (JSONException je) {
 					System.out.print(response.toPrettyString());
@@ -368,25 +465,93 @@ public class SpotifyCredentials  {
         	
 	        // refresh for Authorization Code + PKCE
         	case CODE_REFRESH:
+        		refreshTokenRejected = false;
         		try {
-					response = Unirest.post("https://accounts.spotify.com/api/token")
-							.header("Authorization", authorization)
-							.header("content-type", "application/x-www-form-urlencoded")
-							.field(encodeInURLFormat("grant_type"), 
-									encodeInURLFormat(grantType))
-							.field(encodeInURLFormat("refresh_token"), 
-									encodeInURLFormat(refreshToken))
-							.field("client_id", spotifyClientID)
-							.asJson()
-							.getBody();
+					SpotifyResponse reply = sendTokenRequest(authorization, 
+							"grant_type", grantType,
+							"refresh_token", refreshToken,
+							"client_id", spotifyClientID);
+					response = toJsonNode(reply);
+					
+					refreshTokenRejected = reply.getStatus() == 400 && "invalid_grant"
+							.equals(response.getObject().optString("error", null));
 				
-					accessToken = response.getObject()
-						    .getString("access_token");
+					// Spotify can issue a new refresh token, replacing the old one
+					String newRefreshToken = response.getObject()
+							.optString("refresh_token", null);
+					if (newRefreshToken != null && !newRefreshToken.equals(refreshToken)) {
+						refreshToken = newRefreshToken;
+						if (tokenStore != null) {
+							tokenStore.save(refreshToken);
+						}
+					}
+					publishAccessToken(response);
 					
 				} catch (JSONException je) {
 					System.out.print(response.toPrettyString());
+					return false;
 				}
         }
+        
+        return tokenManager.getToken() != null;
+	}
+	
+	/** 
+	 * Publishes the access token of a token <b>response</b> to <b>tokenManager</b>, 
+	 * which refreshes it before the {@code expires_in} of the response.
+	 * 
+	 * @param response The response of the token endpoint.
+	 */
+	private void publishAccessToken(JsonNode response) {
+		long expiresIn = response.getObject().has("expires_in") ? 
+				response.getObject().optLong("expires_in") : DEFAULT_EXPIRES_IN;
+		tokenManager.publish(response.getObject().getString("access_token"), expiresIn);
+	}
+	
+	/** 
+	 * Posts a form of <b>fields</b> to the token endpoint through the 
+	 * <i>SpotifyTransport</i> and returns the JSON response.
+	 * 
+	 * @param authorization The value of the Authorization header.
+	 * @param fields Alternating names and values of the form fields.
+	 * @return The response as a <i>JsonNode</i>.
+	 */
+	private JsonNode postTokenRequest(String authorization, String... fields) {
+		return toJsonNode(sendTokenRequest(authorization, fields));
+	}
+	
+	/** 
+	 * Posts a form of <b>fields</b> to the token endpoint through the 
+	 * <i>SpotifyTransport</i>, returning the response with its status.
+	 * 
+	 * @param authorization The value of the Authorization header.
+	 * @param fields Alternating names and values of the form fields.
+	 * @return The <i>SpotifyResponse</i> of the token endpoint.
+	 */
+	private SpotifyResponse sendTokenRequest(String authorization, String... fields) {
+		
+		StringBuilder form = new StringBuilder();
+		for (int i = 0; i < fields.length; i += 2) {
+			if (form.length() > 0) {
+				form.append('&');
+			}
+			form.append(URLEncoder.encode(fields[i], StandardCharsets.UTF_8))
+				.append('=')
+				.append(URLEncoder.encode(fields[i + 1], StandardCharsets.UTF_8));
+		}
+		
+		Map<String, String> headers = new HashMap<>();
+		headers.put("Content-Type", "application/x-www-form-urlencoded");
+		headers.put("Authorization", authorization);
+		
+		return transport.send("POST", TOKEN_URL, headers, form.toString(),
+				TOKEN_TIMEOUT);
+	}
+	
+	/** Returns the body of a token endpoint <b>reply</b> as a <i>JsonNode</i>. */
+	private static JsonNode toJsonNode(SpotifyResponse reply) {
+		String json = reply.getBody();
+		return new JsonNode(json.isEmpty() ? "{}" : json);
 	}
 	
 	private static String encodeInURLFormat(String s) {
@@ -399,6 +564,7 @@ public class SpotifyCredentials  {
 	}
 	
 	public String getAccessToken() {
+		String accessToken = tokenManager.getToken();
 		if (accessToken == null) {
 			throw new RuntimeException ("Must get authorization to Spotify Web API by "
 					+ "calling either SpotifyCredentials.getAuthByClient() or "
@@ -408,6 +574,19 @@ public class SpotifyCredentials  {
 		return accessToken;
 	}
 	
+	/**
+	 * Returns a token to retry a request rejected with a 401 (Unauthorized) with, 
+	 * refreshing the token unless another thread already has since <b>rejected</b> 
+	 * was sent. Threads rejected at the same time share one refresh.
+	 * 
+	 * @param rejected The access token the rejected request was sent with.
+	 * @return The token to retry with, or null if none was granted.
+	 * @see AccessTokenManager#refreshAfterUnauthorized(String)
+	 */
+	public String refreshAfterUnauthorized(String rejected) {
+		return tokenManager.refreshAfterUnauthorized(rejected);
+	}
+	
 	public boolean isAuthCodeFlow() {
 		return authCodeFlow;
 	}
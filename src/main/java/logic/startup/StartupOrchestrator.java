@@ -0,0 +1,173 @@
+package logic.startup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Runs the phases of starting the player as a dependency graph rather than one after
+ * another: each phase starts as soon as the phases it depends on have completed, so
+ * phases that don't depend on each other (such as drawing the images while the user
+ * authorizes, or fetching the devices while the frame is built) run at the same time.
+ * A phase whose dependency failed fails with the same cause without starting.
+ *
+ * <p>The time each phase started and took is recorded, and {@code getTimeline()}
+ * returns it as a table once the phases are done.
+ */
+public class StartupOrchestrator {
+
+	/** The local time in nanoseconds the orchestrator was created, which the
+	 * timeline is measured from. */
+	private final long createdAt = System.nanoTime();
+
+	/** The phases by name, in the order added. */
+	private final Map<String, Phase<?>> phases = new LinkedHashMap<>();
+
+	/** A phase and the times it started and ended. */
+	private static class Phase<T> {
+		final String name;
+		final CompletableFuture<T> future;
+		volatile long startedAt;
+		volatile long endedAt;
+		volatile Throwable failure;
+
+		Phase(String name, CompletableFuture<T> future) {
+			this.name = name;
+			this.future = future;
+		}
+	}
+
+	/**
+	 * Adds the phase <b>name</b>, which calls <b>start</b> once every phase of
+	 * <b>dependsOn</b> has completed. <b>start</b> is called on the thread that
+	 * completed the last dependency, so it must not block; blocking work should be
+	 * run on another executor by the future <b>start</b> returns.
+	 *
+	 * @param name The name of the phase in the timeline.
+	 * @param start Starts the phase, returning a future that completes when it ends.
+	 * @param dependsOn The names of the phases, already added, this phase waits for.
+	 * @return A <i>CompletableFuture</i> of the phase's result.
+	 */
+	public synchronized <T> CompletableFuture<T> addPhase(String name,
+			Supplier<? extends CompletableFuture<T>> start, String... dependsOn) {
+
+		if (name == null) {
+			throw new NullPointerException("String \"name\" is null.");
+		} else if (phases.containsKey(name)) {
+			throw new IllegalArgumentException("Phase \"" + name + "\" already added.");
+		}
+
+		// the dependencies must be added first, so the graph can't have a cycle
+		CompletableFuture<?>[] dependencies = new CompletableFuture<?>[dependsOn.length];
+		for (int i = 0; i < dependsOn.length; i++) {
+			Phase<?> dependency = phases.get(dependsOn[i]);
+			if (dependency == null) {
+				throw new IllegalArgumentException("Phase \"" + name + "\" depends on \""
+						+ dependsOn[i] + "\", which isn't added.");
+			}
+			dependencies[i] = dependency.future;
+		}
+
+		CompletableFuture<T> future = new CompletableFuture<>();
+		Phase<T> phase = new Phase<>(name, future);
+		phases.put(name, phase);
+
+		CompletableFuture.allOf(dependencies).whenComplete((v, dependencyFailure) -> {
+			phase.startedAt = System.nanoTime();
+			if (dependencyFailure != null) {
+				end(phase, null, dependencyFailure);
+				return;
+			}
+
+			try {
+				start.get().whenComplete((result, ex) -> end(phase, result, ex));
+			} catch (RuntimeException e) {
+				end(phase, null, e);
+			}
+		});
+
+		return future;
+	}
+
+	private <T> void end(Phase<T> phase, T result, Throwable ex) {
+		phase.endedAt = System.nanoTime();
+		if (ex != null) {
+			Throwable cause = (ex instanceof CompletionException && ex.getCause() != null) ?
+					ex.getCause() : ex;
+			phase.failure = cause;
+			phase.future.completeExceptionally(cause);
+		} else {
+			phase.future.complete(result);
+		}
+	}
+
+	/**
+	 * Returns the future of the phase <b>name</b>.
+	 *
+	 * @param name The name of the phase.
+	 * @return The phase's <i>CompletableFuture</i>, or null if no such phase was added.
+	 */
+	public synchronized CompletableFuture<?> getPhase(String name) {
+		Phase<?> phase = phases.get(name);
+		return (phase != null) ? phase.future : null;
+	}
+
+	/**
+	 * Returns a future that completes once every phase added so far has ended, whether
+	 * or not it succeeded.
+	 *
+	 * @return A <i>CompletableFuture</i> that never completes exceptionally.
+	 */
+	public synchronized CompletableFuture<Void> whenAllDone() {
+		List<CompletableFuture<?>> ends = new ArrayList<>();
+		for (Phase<?> phase : phases.values()) {
+			ends.add(phase.future.handle((result, ex) -> null));
+		}
+		return CompletableFuture.allOf(ends.toArray(new CompletableFuture<?>[0]));
+	}
+
+	/**
+	 * Returns the timeline of the phases: when each started and how long it took, in
+	 * milliseconds from when the orchestrator was created, and how it ended.
+	 *
+	 * @return The timeline as a table, one phase per line.
+	 */
+	public synchronized String getTimeline() {
+		StringBuilder sb = new StringBuilder("Startup timeline (ms):\n");
+		sb.append(String.format("  %-16s %8s %8s  %s%n", "phase", "start", "took",
+				"result"));
+
+		long lastEnd = 0;
+		for (Phase<?> phase : phases.values()) {
+			long start = phase.startedAt;
+			long end = phase.endedAt;
+
+			String result;
+			if (!phase.future.isDone()) {
+				result = (start == 0) ? "waiting" : "running";
+			} else if (phase.failure != null) {
+				result = "failed: " + phase.failure;
+			} else {
+				result = "ok";
+			}
+
+			sb.append(String.format("  %-16s %8s %8s  %s%n", phase.name,
+					(start != 0) ? millis(start - createdAt) : "-",
+					(end != 0) ? millis(end - start) : "-", result));
+			lastEnd = Math.max(lastEnd, end);
+		}
+
+		if (lastEnd != 0) {
+			sb.append(String.format("  %-16s %8s%n", "total", millis(lastEnd - createdAt)));
+		}
+		return sb.toString();
+	}
+
+	private static String millis(long nanos) {
+		return Long.toString(nanos / 1_000_000);
+	}
+}
@@ -20,6 +20,7 @@ import javafx.embed.swing.JFXPanel;
 import javafx.scene.Scene;
 import javafx.scene.web.WebEngine;
 import javafx.scene.web.WebView;
+import logic.spotifycredentials.SpotifyCredentialsService;
 import renderer.images.Images;
 
 /** 
@@ -28,7 +29,7 @@ import renderer.images.Images;
  * listeners when the <b>redirectURI</b> has been hyperlinked by the RESTful API,
  * and parse <b>queryParams</b> from an added tail on a returned <b>redirectURI</b>.
  *  */
-public class ApprovalBrowser extends JFrame {
+public class ApprovalBrowser extends JFrame implements SpotifyCredentialsService {
 
 	private WebEngine webEngine;
 	
@@ -78,7 +79,7 @@ public class ApprovalBrowser extends JFrame {
 			
 			//frame = new JFrame("Spotify Bar");
 			this.setTitle("Loading...");
-			this.setIconImage(images.icon);
+			this.setIconImage(images.getIcon());
 			this.setPreferredSize(new Dimension(WIDTH, HEIGHT));
 			this.setLayout(new BorderLayout());
 	
@@ -0,0 +1,293 @@
+package renderer.compositor;
+
+import java.awt.AlphaComposite;
+import java.awt.Component;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javax.swing.JComponent;
+import javax.swing.JPanel;
+import javax.swing.RepaintManager;
+
+/**
+ * A panel that composes the translucent bar into a single retained back buffer. Each
+ * component added to it is a layer that fills the whole panel, with the first added on
+ * top, like the layers of a <i>JLayeredPane</i>. Each layer is painted once into its
+ * own cached raster, and when a component inside a layer repaints (a hover highlight, a
+ * caret blink, a track bar tick), only the dirty rectangle of that layer's raster is
+ * painted again; painting the bar is then just drawing the layer rasters, rather than
+ * painting every nested translucent panel, label and text field over each other.
+ *
+ * <p>The layers stay real components, so they are laid out and receive mouse and key
+ * events as usual; only their painting is routed through their rasters. This works by
+ * installing a <i>RepaintManager</i> that turns the repaints of components inside a
+ * layer into repaints of the compositor. Double buffering is turned off for the
+ * components of a layer, as the raster is already their buffer.
+ *
+ * <p>Components can repaint from any thread (such as the track bar from the poller), so
+ * the layers and their dirty rectangles are only accessed while holding the lock of
+ * <b>layers</b>; the rasters are only painted on the Event Dispatch Thread.
+ *
+ * <p>Enabled in <i>Display</i> with the system property {@code spotifybar.compositor}
+ * set to {@code true}.
+ */
+public class BarCompositor extends JPanel {
+
+	private static final long serialVersionUID = 1L;
+
+	/** The system property that enables the compositor in <i>Display</i>. */
+	public static final String ENABLED_PROPERTY = "spotifybar.compositor";
+
+	/** The cached raster and dirty rectangle of each layer, and the lock of the dirty
+	 * rectangles. */
+	private final Map<Component, Layer> layers = new IdentityHashMap<>();
+
+	/** The number of times a layer's raster was painted. */
+	private long layerRenders;
+
+	/** The number of times the layers were composed. */
+	private long composites;
+
+	/** A compositor without layers. */
+	public BarCompositor() {
+		super(null);
+		setOpaque(false);
+	}
+
+	/**
+	 * Returns if the compositor is enabled with the system property
+	 * {@code spotifybar.compositor}.
+	 *
+	 * @return <i>true</i> if the bar should be composed with a <i>BarCompositor</i>.
+	 */
+	public static boolean isCompositingEnabled() {
+		return Boolean.getBoolean(ENABLED_PROPERTY);
+	}
+
+	/** The raster a layer was last painted into, and the part of it that is stale. */
+	private static class Layer {
+		BufferedImage raster;
+		double scaleX = 1;
+		double scaleY = 1;
+		final Rectangle dirty = new Rectangle();
+	}
+
+	@Override
+	protected void addImpl(Component comp, Object constraints, int index) {
+		super.addImpl(comp, constraints, index);
+		disableDoubleBuffering(comp);
+		synchronized (layers) {
+			layers.put(comp, new Layer());
+		}
+		comp.setBounds(0, 0, getWidth(), getHeight());
+	}
+
+	@Override
+	public void remove(int index) {
+		synchronized (layers) {
+			layers.remove(getComponent(index));
+		}
+		super.remove(index);
+	}
+
+	/** Turns off double buffering for <b>comp</b> and the components inside it. */
+	private static void disableDoubleBuffering(Component comp) {
+		if (comp instanceof JComponent) {
+			JComponent jc = (JComponent) comp;
+			jc.setDoubleBuffered(false);
+			for (Component child : jc.getComponents()) {
+				disableDoubleBuffering(child);
+			}
+		}
+	}
+
+	@Override
+	public void doLayout() {
+		for (Component comp : getComponents()) {
+			comp.setBounds(0, 0, getWidth(), getHeight());
+		}
+		synchronized (layers) {
+			for (Layer layer : layers.values()) {
+				layer.dirty.setBounds(0, 0, getWidth(), getHeight());
+			}
+		}
+	}
+
+	@Override
+	public boolean isOptimizedDrawingEnabled() {
+		// the layers overlap
+		return false;
+	}
+
+	@Override
+	public void addNotify() {
+		super.addNotify();
+		CompositingRepaintManager.install();
+	}
+
+	/**
+	 * Marks the rectangle <b>x</b>, <b>y</b>, <b>width</b>, <b>height</b> (in the
+	 * compositor's coordinates) of the layer <b>comp</b> as stale, to be painted again
+	 * before the layers are next composed. Called by the <i>RepaintManager</i>, from
+	 * whichever thread repainted.
+	 *
+	 * @param comp The layer that repainted.
+	 */
+	void markDirty(Component comp, int x, int y, int width, int height) {
+		synchronized (layers) {
+			Layer layer = layers.get(comp);
+			if (layer != null) {
+				Rectangle r = new Rectangle(x, y, width, height);
+				if (layer.dirty.isEmpty()) {
+					layer.dirty.setBounds(r);
+				} else {
+					layer.dirty.add(r);
+				}
+			}
+		}
+	}
+
+	/** Composes the layer rasters, from the last added to the first, painting the
+	 * stale parts of each first. */
+	@Override
+	protected void paintComponent(Graphics g) {
+		int width = getWidth();
+		int height = getHeight();
+		if (width <= 0 || height <= 0) {
+			return;
+		}
+
+		Component[] comps = getComponents();
+		for (int i = comps.length - 1; i >= 0; i--) {
+			Component comp = comps[i];
+			Layer layer;
+			synchronized (layers) {
+				layer = layers.get(comp);
+			}
+			if (layer == null || !comp.isVisible()) {
+				continue;
+			}
+
+			renderLayer(comp, layer, width, height);
+			g.drawImage(layer.raster, 0, 0, width, height, null);
+		}
+		composites++;
+	}
+
+	/** The layers are drawn from their rasters in {@code paintComponent()}. */
+	@Override
+	protected void paintChildren(Graphics g) {}
+
+	/**
+	 * Paints the stale part of <b>layer</b>'s raster, or all of it if the raster isn't
+	 * the size of the compositor at the screen's scale.
+	 */
+	private void renderLayer(Component comp, Layer layer, int width, int height) {
+		double scaleX = 1;
+		double scaleY = 1;
+		GraphicsConfiguration gc = getGraphicsConfiguration();
+		if (gc != null) {
+			AffineTransform tx = gc.getDefaultTransform();
+			scaleX = tx.getScaleX();
+			scaleY = tx.getScaleY();
+		}
+
+		int rasterWidth = (int) Math.ceil(width * scaleX);
+		int rasterHeight = (int) Math.ceil(height * scaleY);
+
+		boolean resized = layer.raster == null || layer.raster.getWidth() != rasterWidth ||
+				layer.raster.getHeight() != rasterHeight ||
+				layer.scaleX != scaleX || layer.scaleY != scaleY;
+		if (resized) {
+			layer.raster = new BufferedImage(rasterWidth, rasterHeight,
+					BufferedImage.TYPE_INT_ARGB_PRE);
+			layer.scaleX = scaleX;
+			layer.scaleY = scaleY;
+		}
+
+		Rectangle dirty;
+		synchronized (layers) {
+			if (resized) {
+				layer.dirty.setBounds(0, 0, width, height);
+			}
+			dirty = layer.dirty.intersection(new Rectangle(0, 0, width, height));
+			layer.dirty.setBounds(0, 0, 0, 0);
+		}
+		if (dirty.isEmpty()) {
+			return;
+		}
+
+		Graphics2D lg = layer.raster.createGraphics();
+		try {
+			lg.scale(scaleX, scaleY);
+			lg.setComposite(AlphaComposite.Clear);
+			lg.fillRect(dirty.x, dirty.y, dirty.width, dirty.height);
+			lg.setComposite(AlphaComposite.SrcOver);
+			lg.clipRect(dirty.x, dirty.y, dirty.width, dirty.height);
+			lg.translate(comp.getX(), comp.getY());
+			comp.paint(lg);
+		} finally {
+			lg.dispose();
+		}
+		layerRenders++;
+	}
+
+	/** Returns the number of times the stale part of a layer was painted. */
+	public long getLayerRenders() {
+		return layerRenders;
+	}
+
+	/** Returns the number of times the layers were composed. */
+	public long getComposites() {
+		return composites;
+	}
+
+	/**
+	 * Routes the repaints of components inside a <i>BarCompositor</i> layer to the
+	 * compositor, marking the layer's raster as stale where the component repainted.
+	 */
+	static class CompositingRepaintManager extends RepaintManager {
+
+		/** Installs the manager unless already installed. */
+		static void install() {
+			RepaintManager current = RepaintManager.currentManager((JComponent) null);
+			if (!(current instanceof CompositingRepaintManager)) {
+				RepaintManager.setCurrentManager(new CompositingRepaintManager());
+			}
+		}
+
+		@Override
+		public void addDirtyRegion(JComponent c, int x, int y, int w, int h) {
+			if (w <= 0 || h <= 0) {
+				return;
+			}
+
+			// finds the layer of the compositor c is in, and the offset of c in it
+			Component layer = c;
+			int offsetX = 0;
+			int offsetY = 0;
+			for (Component p = c; p != null; p = p.getParent()) {
+				if (p instanceof BarCompositor) {
+					if (layer != p) {
+						BarCompositor compositor = (BarCompositor) p;
+						compositor.markDirty(layer, x + offsetX, y + offsetY, w, h);
+						super.addDirtyRegion(compositor, x + offsetX, y + offsetY, w, h);
+						return;
+					}
+					break;
+				}
+				layer = p;
+				offsetX += p.getX();
+				offsetY += p.getY();
+			}
+
+			super.addDirtyRegion(c, x, y, w, h);
+		}
+	}
+}
@@ -28,6 +28,8 @@ import java.awt.geom.Ellipse2D;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 import javax.swing.BorderFactory;
 import javax.swing.Box;
@@ -47,11 +49,15 @@ import javax.swing.SwingUtilities;
 import javax.swing.border.Border;
 import javax.swing.border.EmptyBorder;
 
+import logic.albumart.AlbumArt;
 import logic.playerlogic.PlayerLogic;
 import logic.song.Song;
+import logic.song.SongSnapshot;
+import renderer.compositor.BarCompositor;
 import renderer.images.Images;
 import renderer.picturebutton.PictureButtonPanel;
 import renderer.picturebutton.PictureLabel;
+import renderer.trackbar.TrackBar;
 
 /** 
  * A Singleton class that creates an instance of the GUI. The display is entirely
@@ -108,7 +114,7 @@ public class Display {
 	
 	/** The track progress bar that will update according to the track's current
 	 * frame and duration. */
-	private PictureLabel trackBar;
+	private TrackBar trackBar;
 	
 	/** The PictureLabel that album covers will be displayed on. */
 	private PictureLabel albumCoverLabel;
@@ -125,10 +131,16 @@ public class Display {
 	/** Stores the Y mouse coordinate within the frame. */
 	private int offSetMouseY;
 	
+	/** Moves the updates of the display onto the Event Dispatch Thread, keeping only 
+	 * the latest of each kind. */
+	private final DisplayUpdateScheduler updates = new DisplayUpdateScheduler(this);
+	
 	/** The current <i>Song</i> object displayed. */
-	private Song displayedSong;
+	private volatile SongSnapshot displayedSong;
 	
 	static {
+		// draws the images in parallel while the frame is created
+		images.prerender();
 		PictureButtonPanel.setAllRenderingScale((float) 1 / images.getScale());
 	}
 	
@@ -144,7 +156,7 @@ public class Display {
 	 */
 	public static Display createDisplayInstance () {
 		if (display == null) {
-			display = new Display(false);
+			display = new Display(false, true);
 		}
 		
 		return display;
@@ -160,25 +172,52 @@ public class Display {
 	 * @return a single display instance.
 	 */
 	public static Display createDisplayInstance (boolean authCodeFlow) {
+		return createDisplayInstance(authCodeFlow, true);
+	}
+	
+	/** Creates a <i>Display</i> instance if none is instantiated, and returns the same
+	 * instance if already created, with its frame shown only if <b>visible</b>. The 
+	 * frame can then be built while the user is still authorizing, and shown with 
+	 * {@code setVisible(true)} once authorized.
+	 * 
+	 * @param authCodeFlow Adds the previous and forward buttons if <i>true</i>.
+	 * @param visible Shows the frame once created if <i>true</i>.
+	 * @return a single display instance.
+	 */
+	public static Display createDisplayInstance (boolean authCodeFlow, boolean visible) {
 		if (display == null) {
-			if (authCodeFlow) {
-				display = new Display(true);
-			} else {
-				display = new Display(false);
-			}
+			display = new Display(authCodeFlow, visible);
 		}
 		
 		return display;
 	}
 	
-	private Display (boolean authCodeFlow) {
+	/** Disposes of the frame of the display instance, if one was created, so that
+	 * {@code createDisplayInstance()} creates another. */
+	public static void disposeDisplayInstance () {
+		if (display != null) {
+			display.frame.dispose();
+			display = null;
+		}
+	}
+	
+	/** Draws the images of the display in parallel, if not already drawn.
+	 * 
+	 * @return A <i>CompletableFuture</i> completed once all the images are drawn.
+	 * @see Images#prerender()
+	 */
+	public static CompletableFuture<Void> prerenderImages () {
+		return images.prerender();
+	}
+	
+	private Display (boolean authCodeFlow, boolean visible) {
 		
 		//create invisible JFrame
 		frame = new JFrame();
 		Dimension screenSize = Toolkit.getDefaultToolkit().getScreenSize();
 		frame.setBounds(screenSize.width - WIDTH - 30, 40, WIDTH, HEIGHT + 50);
 		frame.setTitle("Spotify Bar");
-		frame.setIconImage(images.icon);
+		frame.setIconImage(images.getIcon());
 		frame.setUndecorated(true);
 		frame.setBackground(new Color(0, 0, 0, 0));
 		frame.setAlwaysOnTop(true);
@@ -194,9 +233,10 @@ public class Display {
 		// ---------------------------------------------------------------------
 		
 		//create background image and allow it to be dragged
-		PictureLabel background = new PictureLabel(images.background);
-		background.setSize(new Dimension(images.background.getWidth() / images.getScale(),
-				images.background.getHeight() / images.getScale()));
+		PictureLabel background = new PictureLabel(images.getBackground());
+		background.setSize(new Dimension(
+				images.getBackground().getWidth() / images.getScale(),
+				images.getBackground().getHeight() / images.getScale()));
 		background.addMouseMotionListener(new MouseAdapter() {
 		     public void mouseDragged(MouseEvent e) {
 				//sets frame position when mouse dragged
@@ -233,10 +273,10 @@ public class Display {
 	    });
 		
 		// searchX button
-		searchX = new PictureButtonPanel(images.searchX);
+		searchX = new PictureButtonPanel(images.getSearchX());
 		searchX.setPreferredSize(new Dimension(
-				images.searchX.getWidth() / images.getScale(),
-				images.searchX.getHeight() / images.getScale()));
+				images.getSearchX().getWidth() / images.getScale(),
+				images.getSearchX().getHeight() / images.getScale()));
 		searchX.addMouseListener(new MouseAdapter() {
 			public void mouseClicked(MouseEvent e) {
 				searchtf.setText("");
@@ -292,18 +332,18 @@ public class Display {
 		// ------------------------------------------------------------------------
 		
 		// place Play/Pause button in the right location and add listeners
-		playPause = new PictureButtonPanel(images.play, true);
+		playPause = new PictureButtonPanel(images.getPlay(), true);
 		playPause.setPreferredSize(new Dimension(
-				images.play.getWidth() / images.getScale(), 
-				images.play.getHeight() / images.getScale()));
+				images.getPlay().getWidth() / images.getScale(), 
+				images.getPlay().getHeight() / images.getScale()));
 		playPause.addMouseListener(new MouseAdapter() {
 			public void mouseClicked(MouseEvent e) {
 				if (!(PlayerLogic.getPlayerState() == PlayerLogic.PLAYING)) {
 					PlayerLogic.play();
-					playPause.setPicture(images.pause);
+					playPause.setPicture(images.getPause());
 				} else {
 					PlayerLogic.pause();
-					playPause.setPicture(images.play);
+					playPause.setPicture(images.getPlay());
 				}
 			}
 		});
@@ -315,10 +355,10 @@ public class Display {
 		if (authCodeFlow) {
 			
 			// adds previous button
-			previous = new PictureButtonPanel(images.previous);
+			previous = new PictureButtonPanel(images.getPrevious());
 			previous.setPreferredSize(new Dimension(
-					images.previous.getWidth() / images.getScale(),
-					images.previous.getHeight() / images.getScale() ));
+					images.getPrevious().getWidth() / images.getScale(),
+					images.getPrevious().getHeight() / images.getScale() ));
 			previous.addMouseListener(new MouseAdapter() {
 				public void mouseClicked(MouseEvent e) {
 					PlayerLogic.previous();
@@ -329,10 +369,10 @@ public class Display {
 			playerControlPanel.add(previous, gbc);
 			
 			// adds forward button
-			forward = new PictureButtonPanel(images.forward);
+			forward = new PictureButtonPanel(images.getForward());
 			forward.setPreferredSize(new Dimension(
-					images.forward.getWidth() / images.getScale(),
-					images.forward.getHeight() / images.getScale() ));
+					images.getForward().getWidth() / images.getScale(),
+					images.getForward().getHeight() / images.getScale() ));
 			//forward.setHighlightBorderColor(Color.GRAY);
 			forward.addMouseListener(new MouseAdapter() {
 				public void mouseClicked(MouseEvent e) {
@@ -367,7 +407,7 @@ public class Display {
 		artistsLabel.setDisabledTextColor(Color.LIGHT_GRAY);
 		
 		// Places the player track bar where it will be
-		trackBar = new PictureLabel(images.blankTrackBar);
+		trackBar = new TrackBar();
 		trackBar.setPreferredSize(new Dimension(0, 10)); // expands width with GridBag
 		trackBar.setBorder(new EmptyBorder(0, 0, 10, 0));
 		
@@ -386,11 +426,11 @@ public class Display {
 		gbc.gridy = 0;
 		
 		//place albumCoverLabel where cover art will be,
-		albumCoverLabel = new PictureLabel(images.blankAlbumCover);
+		albumCoverLabel = new PictureLabel(images.getBlankAlbumCover());
 		albumCoverLabel.setRenderingScale(1.0f / albumCoverScale);
 		albumCoverLabel.setPreferredSize(new Dimension(
-				images.blankAlbumCover.getWidth() / albumCoverScale,
-				images.blankAlbumCover.getHeight() / albumCoverScale));
+				images.getBlankAlbumCover().getWidth() / albumCoverScale,
+				images.getBlankAlbumCover().getHeight() / albumCoverScale));
 		
 		// panel used to honor setPreferredSize of albumCoverLabel
 		JPanel albumCoverPanel = new JPanel(new BorderLayout());
@@ -432,14 +472,34 @@ public class Display {
 		
 		// -----------------------------------------------------------------------
 		
-		//add components to layeredPane (the higher, the further on the bottom)
-		layeredPane.add(mainBox, BorderLayout.CENTER, 11);
-		layeredPane.add(background, BorderLayout.CENTER, 20);
-		
 		frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
 		
-		frame.getContentPane().add(layeredPane);
-		frame.setVisible(true); 
+		if (BarCompositor.isCompositingEnabled()) {
+			
+			// composes the bar into one back buffer (the first added is on top)
+			BarCompositor compositor = new BarCompositor();
+			compositor.setBounds(0, 0, frame.getWidth(), frame.getHeight());
+			compositor.add(mainBox);
+			compositor.add(background);
+			
+			frame.getContentPane().add(compositor);
+		} else {
+			
+			//add components to layeredPane (the higher, the further on the bottom)
+			layeredPane.add(mainBox, BorderLayout.CENTER, 11);
+			layeredPane.add(background, BorderLayout.CENTER, 20);
+			
+			frame.getContentPane().add(layeredPane);
+		}
+		frame.setVisible(visible); 
+	}
+	
+	/** Shows or hides the frame of the display.
+	 * 
+	 * @param visible Shows the frame if <i>true</i>.
+	 */
+	public void setVisible(boolean visible) {
+		frame.setVisible(visible);
 	}
 	
 	public int getWidth() {
@@ -455,10 +515,18 @@ public class Display {
 	 * @param play <i>true</i> is the play image; <i>false</i> is pause.
 	 */
 	public void setPlayPauseImage (boolean play) {
+		updates.submitPlayPause(play);
+	}
+	
+	/** Sets the play or pause image to playPause button on the Event Dispatch Thread.
+	 * 
+	 * @param play <i>true</i> is the play image; <i>false</i> is pause.
+	 */
+	void renderPlayPauseImage (boolean play) {
 		if (play) {
-			playPause.setPicture(images.play);
+			playPause.setPicture(images.getPlay());
 		} else {
-			playPause.setPicture(images.pause);
+			playPause.setPicture(images.getPause());
 		}
 	}
 	
@@ -468,53 +536,91 @@ public class Display {
 	 * @param song The song to display on the player.
 	 */
 	public void displaySong(Song song) {
+		displaySong((song != null) ? song.toSnapshot() : null);
+	}
+	
+	/** Displays the title and album artwork of the song on the player,
+	 * but does not play it. The album cover of the <b>song</b> is drawn without being
+	 * copied. Can be called from any thread.
+	 * 
+	 * @param song The snapshot of the song to display on the player.
+	 */
+	public void displaySong(SongSnapshot song) {
 		if (song != null) {
 			
-			// Name label
-			if (song.getName() != null) {
-				String name = song.getName();
-				nameLabel.setText(name);
-			} else {
+			if (song.getName() == null) {
 				throw new RuntimeException("No name set to \"song\".");
 			}
+			updates.submitSong(song);
 			
-			// Artists label
-			if (song.getArtists() != null) {
-				String artists = "";
-				for (String artist : song.getArtists()) {
-					artists += artist.concat(", ");
-				}
-				artists = artists.substring(0, artists.length() - 2);
-				artistsLabel.setText(artists);
-			} else {
-				throw new RuntimeException("No artists set to \"song\".");
-			}
+		} else {
+			System.out.println("No song to display on player.");
+		}
+	}
+	
+	/** Displays the snapshot of the song on the Event Dispatch Thread.
+	 * 
+	 * @param song The snapshot of the song to display on the player.
+	 */
+	void renderSong(SongSnapshot song) {
+		
+		// Name label
+		nameLabel.setText(song.getName());
+		
+		// Artists label
+		artistsLabel.setText(song.getArtistsText());
+		
+		// AlbumCover label
+		setAlbumCoverPicture(song.getAlbumArt());
+		
+		// Updates the track bar
+		renderTrackBar(song.getProgress(), song.getDuration());
+		
+		displayedSong = song;
+	}
+	
+	/** Displays the album cover <b>albumArt</b> once it has loaded, if the song 
+	 * displayed still has the album URL <b>albumURL</b>. Can be called from any thread.
+	 * 
+	 * @param albumURL The album URL of the song the album cover is of.
+	 * @param albumArt The loaded album cover.
+	 */
+	public void displayAlbumArt(String albumURL, AlbumArt albumArt) {
+		updates.submitAlbumArt(albumURL, albumArt);
+	}
+	
+	/** Displays the album cover <b>albumArt</b> on the Event Dispatch Thread, if the 
+	 * song displayed has the album URL <b>albumURL</b>.
+	 * 
+	 * @param albumURL The album URL of the song the album cover is of.
+	 * @param albumArt The loaded album cover.
+	 */
+	void renderAlbumArt(String albumURL, AlbumArt albumArt) {
+		SongSnapshot song = displayedSong;
+		if (song != null && Objects.equals(song.getAlbumURL(), albumURL)) {
+			setAlbumCoverPicture(albumArt);
+			displayedSong = song.withAlbumArt(albumArt);
+		}
+	}
+	
+	/** Sets <b>albumArt</b> to albumCoverLabel, scaling it if not already the size it
+	 * is shown at, or sets the blank album cover as a placeholder if null.
+	 * 
+	 * @param albumArt The album cover to show (can be null).
+	 */
+	private void setAlbumCoverPicture(AlbumArt albumArt) {
+		if (albumArt != null) {
 			
-			// AlbumCover label
-			if (song.getAlbumCover() != null) {
-				
-				// scales albumCover if not correct dimensions
-				if (song.getAlbumCover().getWidth() == 54 * display.getAlbumCoverScale() &&
-					song.getAlbumCover().getHeight() == 54 * display.getAlbumCoverScale()) {
-					
-					albumCoverLabel.setPicture(song.getAlbumCover());
-				} else {
-					
-					BufferedImage scaledAlbumCover = display.scaleToAlbumCoverDisplaySize(
-							song.getAlbumCover());
-					albumCoverLabel.setPicture(scaledAlbumCover);
-				}
+			// scales albumCover if not correct dimensions
+			if (albumArt.isSize(getAlbumCoverDisplaySize())) {
+				albumCoverLabel.setPicture(albumArt.getImage());
 			} else {
-				albumCoverLabel.setPicture(images.blankAlbumCover);
+				BufferedImage scaledAlbumCover = scaleToAlbumCoverDisplaySize(
+						albumArt.getImage());
+				albumCoverLabel.setPicture(scaledAlbumCover);
 			}
-			
-			// Updates the track bar
-			display.updateTrackBar(song.getProgress(), song.getDuration());
-			
-			displayedSong = song;
-			
 		} else {
-			System.out.println("No song to display on player.");
+			albumCoverLabel.setPicture(images.getBlankAlbumCover());
 		}
 	}
 	
@@ -530,13 +636,24 @@ public class Display {
 		setPlayPauseImage(playingButton);
 	}
 	
+	/** Displays the snapshot of the song on the player and sets the play/pause button.
+	 * 
+	 * @param song The snapshot of the song to display on the player.
+	 * @param playingButton Sets play/pause button to playing (shows pause image) if
+	 * <i>false</i>, and sets it to paused (shows play image) if <i>true</i>.
+	 */
+	public void displaySong(SongSnapshot song, boolean playingButton) {
+		displaySong(song);
+		setPlayPauseImage(playingButton);
+	}
+	
 	/** 
 	 * Scales the BufferedImage to the dimensions that album covers are scaled to.
 	 * 
 	 * @param buffI The <i>BufferedImage</i> to scale.
 	 * @return the scaled <i>BufferedImage</i>.
 	 */
-	public BufferedImage scaleToAlbumCoverDisplaySize(BufferedImage buffI) {
+	public static BufferedImage scaleToAlbumCoverDisplaySize(BufferedImage buffI) {
 		return images.scaleImage(buffI, 54 * albumCoverScale, 54 * albumCoverScale);
 	}
 	
@@ -549,20 +666,40 @@ public class Display {
 		return albumCoverScale;
 	}
 	
+	/** Returns the width and height in pixels album covers are scaled to, which is 
+	 * their displayed size times the album cover scale.
+	 * 
+	 * @return The album cover size.
+	 */
+	public static int getAlbumCoverDisplaySize() {
+		return 54 * albumCoverScale;
+	}
+	
 	/** Updates the track bar of the player according to the seconds played and seconds
-	 * total. Setting <b>current</b> and <b>duration</b> both to 0 will set a blank
-	 * track bar BufferedImage to trackBar.
+	 * total. Setting <b>current</b> and <b>duration</b> both to 0 will show a blank
+	 * track bar. Only repaints the pixels of trackBar that changed, so can be called 
+	 * as often as the progress is known.
 	 * 
 	 * @param current The current second in the track as a double.
 	 * @param duration The length of the track in seconds as a double.
 	 */
 	public void updateTrackBar (double current, double duration) {
-		if (current == 0 && duration == 0) {
-			trackBar.setPicture(images.blankTrackBar);
-		}
-		
-		BufferedImage bImg = images.createTrackBarBufImg(current, duration, false);
-		trackBar.setPicture(bImg);
+		updates.submitProgress(current, duration);
+	}
+	
+	/** Updates the track bar on the Event Dispatch Thread.
+	 * 
+	 * @param current The current second in the track as a double.
+	 * @param duration The length of the track in seconds as a double.
+	 */
+	void renderTrackBar (double current, double duration) {
+		trackBar.setProgress(current, duration);
+	}
+	
+	/** Returns the scheduler that moves updates onto the Event Dispatch Thread, which
+	 * counts the updates merged and dropped. */
+	public DisplayUpdateScheduler getUpdateScheduler() {
+		return updates;
 	}
 	
 	/** Redispatches a MouseEvent to a <b>targetComp</b> from a <b>sourceComp</b>.
@@ -0,0 +1,232 @@
+package renderer.display;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+import logic.albumart.AlbumArt;
+import logic.song.SongSnapshot;
+
+/**
+ * Moves the updates of <i>Display</i> onto the Event Dispatch Thread, since they are
+ * made from the playback poller, the I/O threads and the preview streaming thread.
+ * Updates are coalesced rather than queued: each kind of update (the song, its album
+ * cover, the play/pause button and the track bar) keeps only its latest pending
+ * value, and all pending updates are rendered together. Track bar updates are also
+ * limited to <b>MAX_PROGRESS_FPS</b> per second.
+ *
+ * <p>Updates replaced before being rendered are counted as merged, or as dropped for
+ * track bar updates held back by the frame rate limit.
+ */
+public class DisplayUpdateScheduler {
+
+	/** The most times per second the track bar is rendered. */
+	public static final int MAX_PROGRESS_FPS = 30;
+
+	/** The least milliseconds between track bar renders. */
+	private static final long PROGRESS_FRAME_MILLIS = 1_000 / MAX_PROGRESS_FPS;
+
+	/** The display the updates are rendered on. */
+	private final Display display;
+
+	/** Renders held back track bar updates once the frame rate allows. */
+	private final Timer progressTimer;
+
+	// The pending update of each kind, guarded by this
+	private SongSnapshot pendingSong;
+	private String pendingAlbumURL;
+	private AlbumArt pendingAlbumArt;
+	private boolean hasPendingAlbumArt;
+	private Boolean pendingPlayPause;
+	private double pendingCurrent;
+	private double pendingDuration;
+	private boolean hasPendingProgress;
+
+	/** Is true while a render is posted to the Event Dispatch Thread. */
+	private boolean flushPosted;
+
+	/** The local time in milliseconds the track bar was last rendered. */
+	private long lastProgressRender;
+
+	private long submitted;
+	private long rendered;
+	private long merged;
+	private long dropped;
+
+	DisplayUpdateScheduler(Display display) {
+		this.display = display;
+
+		progressTimer = new Timer((int) PROGRESS_FRAME_MILLIS, e -> flush());
+		progressTimer.setRepeats(false);
+	}
+
+	/**
+	 * Displays <b>song</b>, replacing any song pending. A track bar update pending
+	 * from before is replaced too, as the song sets the track bar.
+	 *
+	 * @param song The snapshot of the song to display.
+	 */
+	public synchronized void submitSong(SongSnapshot song) {
+		submitted++;
+		if (pendingSong != null) {
+			merged++;
+		}
+		if (hasPendingProgress) {
+			merged++;
+			hasPendingProgress = false;
+		}
+		pendingSong = song;
+		postFlush();
+	}
+
+	/**
+	 * Displays <b>albumArt</b> if the song displayed then has the album URL
+	 * <b>albumURL</b>.
+	 *
+	 * @param albumURL The album URL of the song the album cover is of.
+	 * @param albumArt The loaded album cover.
+	 */
+	public synchronized void submitAlbumArt(String albumURL, AlbumArt albumArt) {
+		submitted++;
+		if (hasPendingAlbumArt) {
+			merged++;
+		}
+		pendingAlbumURL = albumURL;
+		pendingAlbumArt = albumArt;
+		hasPendingAlbumArt = true;
+		postFlush();
+	}
+
+	/**
+	 * Sets the play/pause button, replacing any pending.
+	 *
+	 * @param play <i>true</i> is the play image; <i>false</i> is pause.
+	 */
+	public synchronized void submitPlayPause(boolean play) {
+		submitted++;
+		if (pendingPlayPause != null) {
+			merged++;
+		}
+		pendingPlayPause = play;
+		postFlush();
+	}
+
+	/**
+	 * Moves the track bar, replacing any pending track bar update.
+	 *
+	 * @param current The progress into the track.
+	 * @param duration The length of the track.
+	 */
+	public synchronized void submitProgress(double current, double duration) {
+		submitted++;
+		if (hasPendingProgress) {
+			if (progressTimer.isRunning()) {
+				dropped++;
+			} else {
+				merged++;
+			}
+		}
+		pendingCurrent = current;
+		pendingDuration = duration;
+		hasPendingProgress = true;
+		postFlush();
+	}
+
+	/** Posts a render to the Event Dispatch Thread unless one is already posted. */
+	private void postFlush() {
+		if (!flushPosted) {
+			flushPosted = true;
+			SwingUtilities.invokeLater(this::flush);
+		}
+	}
+
+	/**
+	 * Renders the pending updates on the Event Dispatch Thread. A pending track bar
+	 * update is held back until a frame has passed since the last one.
+	 */
+	private void flush() {
+		SongSnapshot song;
+		String albumURL;
+		AlbumArt albumArt;
+		boolean renderAlbumArt;
+		Boolean playPause;
+		boolean renderProgress = false;
+		double current = 0;
+		double duration = 0;
+
+		synchronized (this) {
+			flushPosted = false;
+
+			song = pendingSong;
+			albumURL = pendingAlbumURL;
+			albumArt = pendingAlbumArt;
+			renderAlbumArt = hasPendingAlbumArt;
+			playPause = pendingPlayPause;
+
+			pendingSong = null;
+			pendingAlbumURL = null;
+			pendingAlbumArt = null;
+			hasPendingAlbumArt = false;
+			pendingPlayPause = null;
+
+			if (hasPendingProgress) {
+				long now = System.currentTimeMillis();
+				long wait = lastProgressRender + PROGRESS_FRAME_MILLIS - now;
+
+				if (wait <= 0) {
+					renderProgress = true;
+					current = pendingCurrent;
+					duration = pendingDuration;
+					hasPendingProgress = false;
+					lastProgressRender = now;
+
+				} else if (!progressTimer.isRunning()) {
+					progressTimer.setInitialDelay((int) wait);
+					progressTimer.restart();
+				}
+			}
+
+			rendered += ((song != null) ? 1 : 0) + (renderAlbumArt ? 1 : 0)
+					+ ((playPause != null) ? 1 : 0) + (renderProgress ? 1 : 0);
+		}
+
+		if (song != null) {
+			display.renderSong(song);
+		}
+		if (renderAlbumArt) {
+			display.renderAlbumArt(albumURL, albumArt);
+		}
+		if (playPause != null) {
+			display.renderPlayPauseImage(playPause);
+		}
+		if (renderProgress) {
+			display.renderTrackBar(current, duration);
+		}
+	}
+
+	/** Returns the number of updates submitted. */
+	public synchronized long getSubmitted() {
+		return submitted;
+	}
+
+	/** Returns the number of updates rendered. */
+	public synchronized long getRendered() {
+		return rendered;
+	}
+
+	/** Returns the number of updates replaced by a newer one before being rendered. */
+	public synchronized long getMerged() {
+		return merged;
+	}
+
+	/** Returns the number of track bar updates replaced while held back by the frame
+	 * rate limit. */
+	public synchronized long getDropped() {
+		return dropped;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "DisplayUpdateScheduler[submitted=" + submitted + ", rendered=" + rendered
+				+ ", merged=" + merged + ", dropped=" + dropped + "]";
+	}
+}
@@ -0,0 +1,218 @@
+package renderer.images;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.imageio.ImageIO;
+
+import logic.appdirectories.AppDirectories;
+
+/**
+ * The images of <i>Images</i> saved together in one PNG file (a sprite atlas) in the
+ * app's cache directory, so that later launches read one file instead of drawing each
+ * image again. The position of each image in the PNG is kept in a properties file next
+ * to it. Both files are named by a key of the atlas version and the parameters the
+ * images were drawn with, so an atlas drawn at another scale or size, or by an older
+ * version of the drawing code, is never read.
+ *
+ * <p>Reading and writing fail silently (the images are just drawn), as an atlas that
+ * can't be used shouldn't stop the bar from being shown.
+ */
+class ImageAtlas {
+
+	/** The version of the drawing code of <i>Images</i>, which must be raised whenever
+	 * an image is drawn differently so that the old atlases aren't read. */
+	static final int VERSION = 1;
+
+	/** The widest the atlas is, unless an image is wider. */
+	private static final int MAX_ROW_WIDTH = 1024;
+
+	/** The space in pixels around each image, so that scaling an image doesn't
+	 * blend in the pixels of the image next to it. */
+	private static final int PADDING = 1;
+
+	/** The PNG file of the images. */
+	private final Path imageFile;
+
+	/** The properties file of the position of each image in <b>imageFile</b>. */
+	private final Path indexFile;
+
+	/**
+	 * Creates the atlas named by <b>key</b> in <b>directory</b>.
+	 *
+	 * @param directory The directory the atlas files are kept in.
+	 * @param key The parameters the images were drawn with, which the atlas is named
+	 * by along with <b>VERSION</b>.
+	 */
+	ImageAtlas(Path directory, String key) {
+		String name = "atlas-v" + VERSION + "-" + key;
+		this.imageFile = directory.resolve(name + ".png");
+		this.indexFile = directory.resolve(name + ".properties");
+	}
+
+	/**
+	 * Returns the atlas named by <b>key</b> in the <i>images</i> subdirectory of the
+	 * app's cache directory, or null if the directory couldn't be created.
+	 *
+	 * @param key The parameters the images were drawn with.
+	 * @return The <i>ImageAtlas</i> or null.
+	 */
+	static ImageAtlas inCacheDirectory(String key) {
+		try {
+			return new ImageAtlas(AppDirectories.createCacheDirectory("images"), key);
+		} catch (IOException | SecurityException e) {
+			System.out.println("Images won't be saved to an atlas: " + e);
+			return null;
+		}
+	}
+
+	/**
+	 * Reads the images of the atlas, each a sub image of the one PNG.
+	 *
+	 * @return The images by name, or null if the atlas wasn't saved or couldn't be
+	 * read.
+	 */
+	Map<String, BufferedImage> load() {
+		Properties index = new Properties();
+		BufferedImage atlas;
+
+		try (InputStream in = Files.newInputStream(indexFile)) {
+			index.load(in);
+			atlas = ImageIO.read(imageFile.toFile());
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException e) {
+			System.out.println("Could not read image atlas: " + e);
+			return null;
+		}
+
+		if (atlas == null) {
+			return null;
+		}
+
+		Map<String, BufferedImage> images = new LinkedHashMap<>();
+		try {
+			for (String name : index.stringPropertyNames()) {
+				String[] r = index.getProperty(name).split(",");
+				images.put(name, atlas.getSubimage(Integer.parseInt(r[0].trim()),
+						Integer.parseInt(r[1].trim()), Integer.parseInt(r[2].trim()),
+						Integer.parseInt(r[3].trim())));
+			}
+		} catch (RuntimeException e) {
+			System.out.println("Could not read image atlas: " + e);
+			return null;
+		}
+		return images;
+	}
+
+	/**
+	 * Saves <b>images</b> to the atlas, packing them into rows by height. The index is
+	 * moved into place after the PNG, so that an atlas is only read once both are
+	 * written.
+	 *
+	 * @param images The images by name.
+	 */
+	void save(Map<String, BufferedImage> images) {
+		List<String> names = new ArrayList<>(images.keySet());
+		names.sort(Comparator.comparingInt((String n) -> images.get(n).getHeight())
+				.reversed());
+
+		// packs the images into rows, tallest first
+		Properties index = new Properties();
+		int rowWidth = MAX_ROW_WIDTH;
+		for (BufferedImage image : images.values()) {
+			rowWidth = Math.max(rowWidth, image.getWidth() + PADDING * 2);
+		}
+
+		int x = 0;
+		int y = 0;
+		int rowHeight = 0;
+		int width = 0;
+		for (String name : names) {
+			BufferedImage image = images.get(name);
+			int w = image.getWidth() + PADDING * 2;
+			int h = image.getHeight() + PADDING * 2;
+
+			if (x + w > rowWidth) {
+				x = 0;
+				y += rowHeight;
+				rowHeight = 0;
+			}
+
+			index.setProperty(name, (x + PADDING) + "," + (y + PADDING) + ","
+					+ image.getWidth() + "," + image.getHeight());
+			x += w;
+			rowHeight = Math.max(rowHeight, h);
+			width = Math.max(width, x);
+		}
+
+		BufferedImage atlas = new BufferedImage(Math.max(width, 1),
+				Math.max(y + rowHeight, 1), BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g2d = atlas.createGraphics();
+		g2d.setComposite(AlphaComposite.Src);
+		for (String name : names) {
+			String[] r = index.getProperty(name).split(",");
+			g2d.drawImage(images.get(name), Integer.parseInt(r[0]),
+					Integer.parseInt(r[1]), null);
+		}
+		g2d.dispose();
+
+		Path tempImage = null;
+		Path tempIndex = null;
+		try {
+			Path directory = imageFile.getParent();
+			tempImage = Files.createTempFile(directory, "atlas", ".tmp");
+			tempIndex = Files.createTempFile(directory, "atlas", ".tmp");
+
+			if (!ImageIO.write(atlas, "png", tempImage.toFile())) {
+				throw new IOException("No PNG writer");
+			}
+			try (OutputStream out = Files.newOutputStream(tempIndex)) {
+				index.store(out, "Image atlas v" + VERSION);
+			}
+
+			move(tempImage, imageFile);
+			move(tempIndex, indexFile);
+
+		} catch (IOException e) {
+			System.out.println("Could not save image atlas: " + e);
+			deleteQuietly(tempImage);
+			deleteQuietly(tempIndex);
+		}
+	}
+
+	private static void move(Path source, Path target) throws IOException {
+		try {
+			Files.move(source, target, StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private static void deleteQuietly(Path f) {
+		if (f == null) {
+			return;
+		}
+		try {
+			Files.deleteIfExists(f);
+		} catch (IOException e) {
+			// left for the next save to replace
+		}
+	}
+}
@@ -10,6 +10,16 @@ import java.awt.geom.CubicCurve2D;
 import java.awt.geom.Ellipse2D;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.imageio.ImageIO;
 
@@ -44,39 +54,65 @@ public class Images {
 	 * 4 * that size. A higher scale will increase the quality. */
 	private int albumCoverScale;
 	
-	/** The background <i>BufferedImage</i> of the Spotify player, composed of the black
-	 * background, Spotify logo, search bar underline, and anchor symbol on the left. */
-	public final BufferedImage background;
-	
-	/** The 'X' button of the search Bar in a <i>BufferedImage</i>. */
-	public final BufferedImage searchX;
+	/** The images this class creates, each drawn (or loaded) the first time it is 
+	 * used, or ahead of time by {@code prerender()}. */
+	private enum Asset {
+		/** The background of the Spotify player, composed of the black background, 
+		 * Spotify logo, search bar underline, and anchor symbol on the left. */
+		BACKGROUND,
+		/** The 'X' button of the search Bar. */
+		SEARCH_X,
+		/** The 'play' image for the Play/Pause button. */
+		PLAY,
+		/** The 'pause' image for the Play/Pause button. */
+		PAUSE,
+		/** A track bar with no playing progress on it or circle at the current 
+		 * position of the track. */
+		BLANK_TRACK_BAR,
+		CLOSE_ICON,
+		/** The blank album cover for when no album has been loaded. */
+		BLANK_ALBUM_COVER,
+		/** The previous image for going to the previous track. */
+		PREVIOUS,
+		/** The forward image for going to next track. */
+		FORWARD,
+		/** The 'que' button in the search Bar to add a song to the que. */
+		ADD_TO_QUEUE
+	}
 	
-	/** The 'play' <i>BufferedImage</i> for the Play/Pause button. */
-	public final BufferedImage play;
+	/** The threads images are drawn on ahead of time. */
+	private static final ThreadPoolExecutor renderExecutor;
+	
+	static {
+		AtomicInteger count = new AtomicInteger();
+		int threads = Math.max(1, Math.min(4, 
+				Runtime.getRuntime().availableProcessors()));
+		renderExecutor = new ThreadPoolExecutor(threads, threads, 10, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), r -> {
+					Thread t = new Thread(r, "images-render-" + count.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				});
+		renderExecutor.allowCoreThreadTimeOut(true);
+	}
 	
-	/** The 'pause' <i>BufferedImage</i> for the Play/Pause button. */
-	public final BufferedImage pause;
+	/** The image of each asset, which is completed once drawn or loaded. */
+	private final Map<Asset, CompletableFuture<BufferedImage>> assets = 
+			new ConcurrentHashMap<>();
 	
-	/** A <i>BufferedImage</i> of a track bar with no playing progress on it
-	 * or circle at the current position of the track. */
-	public final BufferedImage blankTrackBar;
+	/** The images read from the atlas, or null if there was none. Read once, the first 
+	 * time an image is used. */
+	private Map<String, BufferedImage> atlasImages;
+	private boolean atlasRead;
 	
-	public final BufferedImage closeIcon;
+	/** The atlas the images are saved to, or null if not saved. */
+	private final ImageAtlas atlas;
 	
 	/** The logo for the application loaded from a PNG file. */
-	public final BufferedImage icon;
+	private volatile BufferedImage icon;
 	
-	/** The blank album cover BufferedImage for when no album has been loaded. */
-	public final BufferedImage blankAlbumCover;
-	
-	/** The previous BufferedImage for going to the previous track. */
-	public final BufferedImage previous;
-	
-	/** The forward BufferedImage for going to next track. */
-	public final BufferedImage forward;
-	
-	/** The 'que' button in the search Bar to add a song to the que. */
-	public final BufferedImage addToQueue;
+	/** Completes once {@code prerender()} has drawn every image, or null if not called. */
+	private CompletableFuture<Void> prerendered;
 	
 	private final String IMAGE_DIR = ""; // "/resources" for executable
 	
@@ -106,7 +142,9 @@ public class Images {
 	 * parameter, additionally rendering the background BufferedImage to the <b>width</b> and 
 	 * <b>height</b> parameters (further multiplied by <b>scale</b>) and the 
 	 * blankAlbumCover BufferedImage scaled to the <b>albumCoverScale</b> parameter
-	 * (not multiplied by <b>scale</b>).
+	 * (not multiplied by <b>scale</b>). The images are drawn the first time they are 
+	 * used, or ahead of time in parallel by {@code prerender()}, and are saved together
+	 * in an atlas file so that later launches only read the atlas.
 	 * 
 	 * @param scale The scale by which all BufferedImages are multiplied to allow 
 	 * quality enhancement, except the blankALbumCover.
@@ -128,17 +166,184 @@ public class Images {
 		}
 		
 		this.scale = scale;
-		this.background = createBackgroundBufImg(width, height);
-		this.searchX = createSearchXBufImg();
-		this.play = createPlayBufImg();
-		this.pause = createPauseBufImg();
-		this.blankTrackBar = createTrackBarBufImg(0, 10, false);
-		this.closeIcon = createCloseIconBufImg();
-		this.previous = createPreviousBImg();
-		this.forward = createForwardBImg();
-		this.addToQueue = createAddToQueueBImg();
-		this.icon = loadIcon();
-		this.blankAlbumCover = loadBlankAlbum(albumCoverScale);
+		this.WIDTH = width;
+		this.HEIGHT = height;
+		this.albumCoverScale = albumCoverScale;
+		this.atlas = ImageAtlas.inCacheDirectory(
+				"s" + scale + "-" + width + "x" + height + "-c" + albumCoverScale);
+	}
+	
+	/** Draws (or reads from the atlas) every image not yet drawn in parallel, then 
+	 * saves them to the atlas if they weren't all read from it. Returns immediately, as 
+	 * the getters of the images wait for an image still being drawn. Only draws the 
+	 * images the first time it's called.
+	 * 
+	 * @return A <i>CompletableFuture</i> completed once all the images are drawn.
+	 */
+	public synchronized CompletableFuture<Void> prerender() {
+		if (prerendered != null) {
+			return prerendered;
+		}
+		
+		CompletableFuture<?>[] all = new CompletableFuture<?>[Asset.values().length];
+		for (Asset asset : Asset.values()) {
+			all[asset.ordinal()] = future(asset, renderExecutor);
+		}
+		
+		prerendered = CompletableFuture.allOf(all);
+		prerendered.thenRunAsync(this::saveAtlas, renderExecutor);
+		return prerendered;
+	}
+	
+	/** Returns the image of <b>asset</b>, drawing it on this thread if not yet drawn or 
+	 * waiting for it if being drawn on another. */
+	private BufferedImage get(Asset asset) {
+		return future(asset, null).join();
+	}
+	
+	/** Returns the future of the image of <b>asset</b>, starting to draw it on 
+	 * <b>executor</b>, or this thread if null, if not yet started. */
+	private CompletableFuture<BufferedImage> future(Asset asset, Executor executor) {
+		CompletableFuture<BufferedImage> future = assets.get(asset);
+		if (future != null) {
+			return future;
+		}
+		
+		CompletableFuture<BufferedImage> created = new CompletableFuture<>();
+		future = assets.putIfAbsent(asset, created);
+		if (future != null) {
+			return future;
+		}
+		
+		Runnable render = () -> {
+			try {
+				created.complete(render(asset));
+			} catch (RuntimeException e) {
+				created.completeExceptionally(e);
+			}
+		};
+		if (executor != null) {
+			executor.execute(render);
+		} else {
+			render.run();
+		}
+		return created;
+	}
+	
+	/** Returns the image of <b>asset</b> from the atlas, or draws it. */
+	private BufferedImage render(Asset asset) {
+		BufferedImage bImg = readAtlas().get(asset.name());
+		if (bImg != null) {
+			return bImg;
+		}
+		
+		switch (asset) {
+			case BACKGROUND: return createBackgroundBufImg(WIDTH, HEIGHT);
+			case SEARCH_X: return createSearchXBufImg();
+			case PLAY: return createPlayBufImg();
+			case PAUSE: return createPauseBufImg();
+			case BLANK_TRACK_BAR: return createTrackBarBufImg(0, 10, false);
+			case CLOSE_ICON: return createCloseIconBufImg();
+			case BLANK_ALBUM_COVER: return loadBlankAlbum(albumCoverScale);
+			case PREVIOUS: return createPreviousBImg();
+			case FORWARD: return createForwardBImg();
+			case ADD_TO_QUEUE: return createAddToQueueBImg();
+			default: throw new IllegalArgumentException("Unknown image " + asset);
+		}
+	}
+	
+	/** Returns the images read from the atlas, reading it the first time. */
+	private synchronized Map<String, BufferedImage> readAtlas() {
+		if (!atlasRead) {
+			atlasRead = true;
+			atlasImages = (atlas != null) ? atlas.load() : null;
+		}
+		return (atlasImages != null) ? atlasImages : Collections.emptyMap();
+	}
+	
+	/** Saves the images to the atlas, unless they were all read from it. */
+	private void saveAtlas() {
+		if (atlas == null) {
+			return;
+		}
+		
+		Map<String, BufferedImage> atlasImages = readAtlas();
+		Map<String, BufferedImage> images = new LinkedHashMap<>();
+		boolean allInAtlas = true;
+		for (Asset asset : Asset.values()) {
+			BufferedImage bImg = assets.get(asset).join();
+			if (bImg == null) {
+				return;
+			}
+			images.put(asset.name(), bImg);
+			allInAtlas &= atlasImages.get(asset.name()) == bImg;
+		}
+		
+		if (!allInAtlas) {
+			atlas.save(images);
+		}
+	}
+	
+	/** Returns the background <i>BufferedImage</i> of the Spotify player, composed of 
+	 * the black background, Spotify logo, search bar underline, and anchor symbol on 
+	 * the left. */
+	public BufferedImage getBackground() {
+		return get(Asset.BACKGROUND);
+	}
+	
+	/** Returns the 'X' button of the search Bar in a <i>BufferedImage</i>. */
+	public BufferedImage getSearchX() {
+		return get(Asset.SEARCH_X);
+	}
+	
+	/** Returns the 'play' <i>BufferedImage</i> for the Play/Pause button. */
+	public BufferedImage getPlay() {
+		return get(Asset.PLAY);
+	}
+	
+	/** Returns the 'pause' <i>BufferedImage</i> for the Play/Pause button. */
+	public BufferedImage getPause() {
+		return get(Asset.PAUSE);
+	}
+	
+	/** Returns a <i>BufferedImage</i> of a track bar with no playing progress on it
+	 * or circle at the current position of the track. */
+	public BufferedImage getBlankTrackBar() {
+		return get(Asset.BLANK_TRACK_BAR);
+	}
+	
+	public BufferedImage getCloseIcon() {
+		return get(Asset.CLOSE_ICON);
+	}
+	
+	/** Returns the logo for the application loaded from a PNG file. */
+	public BufferedImage getIcon() {
+		BufferedImage bImg = icon;
+		if (bImg == null) {
+			bImg = loadIcon();
+			icon = bImg;
+		}
+		return bImg;
+	}
+	
+	/** Returns the blank album cover BufferedImage for when no album has been loaded. */
+	public BufferedImage getBlankAlbumCover() {
+		return get(Asset.BLANK_ALBUM_COVER);
+	}
+	
+	/** Returns the previous BufferedImage for going to the previous track. */
+	public BufferedImage getPrevious() {
+		return get(Asset.PREVIOUS);
+	}
+	
+	/** Returns the forward BufferedImage for going to next track. */
+	public BufferedImage getForward() {
+		return get(Asset.FORWARD);
+	}
+	
+	/** Returns the 'que' button in the search Bar to add a song to the que. */
+	public BufferedImage getAddToQueue() {
+		return get(Asset.ADD_TO_QUEUE);
 	}
 	
 	public int getWidth() {
@@ -218,15 +218,17 @@ public class PictureButtonPanel extends JPanel implements PictureLabelService {
 	/** Overrides in order to completely repaint background, working
      * with {@code setOpaque(false)}, which makes sure the
      * parent components paint first, to allow for a background Color
-     * that is semi-transparent. */
+     * that is semi-transparent. The picture is drawn under the highlight as 
+     * well as by the PictureLabel over it, from the same pre-rendered picture. */
     @Override
     protected void paintComponent(Graphics g)
     {
-    	Graphics2D g2d = (Graphics2D) g;
+    	pl.getScaledPicture().draw((Graphics2D) g, 0, 0, getGraphicsConfiguration());
+    	
+    	Graphics2D g2d = (Graphics2D) g.create();
     	if (pl.isScaled()) {
 			g2d.scale(pl.getRenderingScale(), pl.getRenderingScale());
 		}
-		g2d.drawImage(picture, null, 0, 0);
 		g2d.setColor( getBackground() );
 		g2d.fill(highlight);
 		g2d.dispose();
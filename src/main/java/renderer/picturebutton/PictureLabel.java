@@ -20,6 +20,14 @@ public class PictureLabel extends JLabel implements PictureLabelService {
 	private boolean scaled = (allScale != 1.0f) ? true : false;
 	private float renderingScale = allScale;
 	
+	/** The picture pre-rendered at the size it is painted at, so it isn't scaled down 
+	 * on every paint. */
+	private final ScaledPicture scaledPicture = new ScaledPicture();
+	
+	{
+		scaledPicture.setRenderingScale(renderingScale);
+	}
+	
 	/** A ButtonLabel without a picture, with scaling at default <b>false</b>.
 	 * 
 	 * @see ButtonLabel */
@@ -28,6 +36,7 @@ public class PictureLabel extends JLabel implements PictureLabelService {
 	/** A PictureLabel with the picture <b>bufImg</b> and scaling at default <i>false</i>. */
 	public PictureLabel (BufferedImage bufImg) {
 		this.originalPicture = bufImg;
+		scaledPicture.setPicture(bufImg);
 	}
 	
 	/** Stores <b>bufImg</b> and determines if a circleButton. Additionally,
@@ -73,6 +82,7 @@ public class PictureLabel extends JLabel implements PictureLabelService {
 	 * @param bufImg BufferedImage to be painted. */
 	public void setPicture (BufferedImage bufImg) {
 		originalPicture = bufImg;
+		scaledPicture.setPicture(bufImg);
 		this.repaint();
 	}
 	
@@ -87,6 +97,8 @@ public class PictureLabel extends JLabel implements PictureLabelService {
 			this.scaled = false;
 			this.renderingScale = 1.0f;
 		}
+		scaledPicture.setRenderingScale(renderingScale);
+		repaint();
 	}
 	public static void setAllRenderingScale(float scale) {
 		allScale = scale;
@@ -95,13 +107,16 @@ public class PictureLabel extends JLabel implements PictureLabelService {
 		return scaled;
 	}
 	
+	/** Returns the picture pre-rendered at the size it is painted at, so a
+	 * <i>PictureButtonPanel</i> can draw it too without scaling it again. */
+	ScaledPicture getScaledPicture() {
+		return scaledPicture;
+	}
+	
+	/** Draws the picture pre-rendered at its rendering scale and the scale of the 
+	 * screen, which is only scaled again after the picture or either scale changes. */
 	@Override
 	public void paintComponent(Graphics g) {
-		Graphics2D g2d = (Graphics2D) g;
-		if (scaled) {
-			g2d.scale(renderingScale, renderingScale);
-		}
-		g2d.drawImage(originalPicture, null, 0, 0);
-		g2d.dispose();
+		scaledPicture.draw((Graphics2D) g, 0, 0, getGraphicsConfiguration());
 	}
 }
\ No newline at end of file
@@ -0,0 +1,178 @@
+package renderer.picturebutton;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.io.IOException;
+
+import net.coobird.thumbnailator.Thumbnails;
+
+/** A picture pre-rendered at the size it is painted at on the screen, so that a
+ * picture drawn from the 4x resolution images of <i>Images</i> is scaled down once
+ * rather than on every paint. The scaled picture is made again when the picture, the
+ * rendering scale, or the scale of the screen (such as when the window is moved to a
+ * monitor of a different DPI) changes, and is then drawn pixel for pixel.
+ *
+ * <p>With the system property {@code spotifybar.volatileImages} set to {@code true},
+ * the scaled picture is also copied to a <i>VolatileImage</i>, which can be drawn by
+ * the graphics card, and is copied again whenever its contents are lost.
+ */
+class ScaledPicture {
+
+	/** Is true if the scaled pictures are kept in <i>VolatileImage</i>s. */
+	private static final boolean USE_VOLATILE_IMAGES =
+			Boolean.getBoolean("spotifybar.volatileImages");
+
+	/** The picture at its original size. */
+	private BufferedImage picture;
+
+	/** The scale the picture is painted to, before the screen's scale. */
+	private float renderingScale = 1.0f;
+
+	/** The picture scaled to the screen, or null if it must be made again. */
+	private BufferedImage scaled;
+
+	/** The screen scale <b>scaled</b> was made for. */
+	private double deviceScaleX;
+	private double deviceScaleY;
+
+	/** <b>scaled</b> in the graphics card's memory, if enabled. */
+	private VolatileImage accelerated;
+
+	/** Sets the picture to draw, which is scaled again when next drawn.
+	 *
+	 * @param picture The picture at its original size (can be null).
+	 */
+	void setPicture (BufferedImage picture) {
+		if (this.picture != picture) {
+			this.picture = picture;
+			invalidate();
+		}
+	}
+
+	/** Sets the scale the picture is painted to, which is scaled again when next drawn
+	 * if it changed.
+	 *
+	 * @param renderingScale The scale of the picture.
+	 */
+	void setRenderingScale (float renderingScale) {
+		if (this.renderingScale != renderingScale) {
+			this.renderingScale = renderingScale;
+			invalidate();
+		}
+	}
+
+	/** Forgets the scaled picture. */
+	void invalidate () {
+		scaled = null;
+		if (accelerated != null) {
+			accelerated.flush();
+			accelerated = null;
+		}
+	}
+
+	/** Draws the picture at <b>x</b>, <b>y</b> (in the component's coordinates) to
+	 * <b>g</b>, scaling it first if it isn't already scaled to the screen of <b>g</b>.
+	 *
+	 * @param g The graphics of the component, which is left as it was.
+	 * @param gc The screen the component is on, or null if not yet shown.
+	 */
+	void draw (Graphics2D g, int x, int y, GraphicsConfiguration gc) {
+		if (picture == null) {
+			return;
+		}
+
+		AffineTransform tx = g.getTransform();
+		double deviceScaleX = tx.getScaleX();
+		double deviceScaleY = tx.getScaleY();
+
+		// only pre-renders for scales and translations; leaves anything else to g
+		if (tx.getShearX() != 0 || tx.getShearY() != 0 ||
+				deviceScaleX <= 0 || deviceScaleY <= 0) {
+			Graphics2D g2d = (Graphics2D) g.create();
+			g2d.translate(x, y);
+			g2d.scale(renderingScale, renderingScale);
+			g2d.drawImage(picture, null, 0, 0);
+			g2d.dispose();
+			return;
+		}
+
+		if (scaled == null || deviceScaleX != this.deviceScaleX ||
+				deviceScaleY != this.deviceScaleY) {
+			invalidate();
+			scaled = scale(picture,
+					(int) Math.round(picture.getWidth() * renderingScale * deviceScaleX),
+					(int) Math.round(picture.getHeight() * renderingScale * deviceScaleY));
+			this.deviceScaleX = deviceScaleX;
+			this.deviceScaleY = deviceScaleY;
+		}
+
+		// draws in device pixels, so the scaled picture isn't scaled again
+		Graphics2D g2d = (Graphics2D) g.create();
+		g2d.setTransform(new AffineTransform(1, 0, 0, 1,
+				Math.round(tx.getTranslateX() + x * deviceScaleX),
+				Math.round(tx.getTranslateY() + y * deviceScaleY)));
+
+		if (!USE_VOLATILE_IMAGES || gc == null || !drawAccelerated(g2d, gc)) {
+			g2d.drawImage(scaled, 0, 0, null);
+		}
+		g2d.dispose();
+	}
+
+	/** Draws the scaled picture from the graphics card's memory, copying it there if
+	 * its contents were lost.
+	 *
+	 * @return <i>true</i> if drawn, or <i>false</i> if the contents were lost while
+	 * drawing.
+	 */
+	private boolean drawAccelerated (Graphics2D g, GraphicsConfiguration gc) {
+		int status = (accelerated != null) ?
+				accelerated.validate(gc) : VolatileImage.IMAGE_INCOMPATIBLE;
+
+		if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+			if (accelerated != null) {
+				accelerated.flush();
+			}
+			accelerated = gc.createCompatibleVolatileImage(scaled.getWidth(),
+					scaled.getHeight(), Transparency.TRANSLUCENT);
+			copyToAccelerated();
+
+		} else if (status == VolatileImage.IMAGE_RESTORED) {
+			copyToAccelerated();
+		}
+
+		g.drawImage(accelerated, 0, 0, null);
+		return !accelerated.contentsLost();
+	}
+
+	private void copyToAccelerated () {
+		Graphics2D vg = accelerated.createGraphics();
+		vg.setComposite(AlphaComposite.Src);
+		vg.drawImage(scaled, 0, 0, null);
+		vg.dispose();
+	}
+
+	/** Scales <b>picture</b> to <b>width</b> by <b>height</b> using the Thumbnailator
+	 * Library, which keeps the quality of the picture. */
+	private static BufferedImage scale (BufferedImage picture, int width, int height) {
+		width = Math.max(1, width);
+		height = Math.max(1, height);
+		if (picture.getWidth() == width && picture.getHeight() == height) {
+			return picture;
+		}
+
+		try {
+			return Thumbnails.of(picture)
+					.size(width, height)
+					.keepAspectRatio(false)
+					.asBufferedImage();
+		} catch (IOException e) {
+			e.printStackTrace();
+			return picture;
+		}
+	}
+}
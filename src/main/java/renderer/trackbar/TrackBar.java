@@ -0,0 +1,123 @@
+package renderer.trackbar;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Insets;
+import java.awt.Rectangle;
+
+import javax.swing.JComponent;
+import javax.swing.border.Border;
+
+/** A player progress bar that paints itself directly, with the section played in 
+ * white and the section to play in gray. Unlike setting a new track bar 
+ * <i>BufferedImage</i> to a <i>PictureLabel</i> for every update, updating the 
+ * progress allocates nothing, and only repaints the part of the bar between the old 
+ * and new progress, and nothing at all if the progress moved less than a pixel.
+ * 
+ * <p>{@code setProgress()} can be called from any thread.
+ */
+public class TrackBar extends JComponent {
+	
+	/** The length of the bar in pixels. */
+	public static final int BAR_WIDTH = 170;
+	
+	/** The thickness of the bar in pixels. */
+	private static final int BAR_HEIGHT = 2;
+	
+	/** The y of the top of the bar in pixels from the top of its 8 pixel area, where the
+	 * track bar image of <i>Images</i> drew it (centered in its 10 pixel buffer). */
+	private static final int BAR_Y = (10 - BAR_HEIGHT) / 2;
+	
+	/** The x of the end of the played section in pixels from the start of the bar. */
+	private volatile int playedWidth;
+	
+	/** The left and top insets of the border, kept so that updates from other
+	 * threads don't read the border. */
+	private volatile int insetLeft;
+	private volatile int insetTop;
+	
+	/** Reused for the insets, so that painting doesn't allocate. */
+	private final Insets insets = new Insets(0, 0, 0, 0);
+	
+	/** Reused for the clip bounds, so that painting doesn't allocate. */
+	private final Rectangle clip = new Rectangle();
+	
+	/** A TrackBar showing nothing played. */
+	public TrackBar () {
+		this.setOpaque(false);
+	}
+	
+	/** Sets the progress shown to <b>current</b> of <b>duration</b>, repainting only 
+	 * the pixels of the bar that changed. A <b>duration</b> of 0 shows nothing played.
+	 * 
+	 * @param current The progress into the track, in any unit.
+	 * @param duration The length of the track, in the same unit as <b>current</b>.
+	 */
+	public void setProgress (double current, double duration) {
+		
+		int newWidth = 0;
+		if (duration > 0 && current > 0) {
+			newWidth = (int) Math.min(BAR_WIDTH, current / duration * BAR_WIDTH);
+		}
+		
+		int oldWidth = playedWidth;
+		if (newWidth == oldWidth) {
+			return;
+		}
+		playedWidth = newWidth;
+		
+		repaint(insetLeft + Math.min(oldWidth, newWidth), 
+				insetTop + BAR_Y, 
+				Math.abs(newWidth - oldWidth), BAR_HEIGHT);
+	}
+	
+	@Override
+	public void setBorder (Border border) {
+		super.setBorder(border);
+		
+		Insets in = getInsets();
+		insetLeft = in.left;
+		insetTop = in.top;
+	}
+	
+	/** Returns the x of the end of the played section in pixels from the start of the
+	 * bar. */
+	public int getPlayedWidth () {
+		return playedWidth;
+	}
+	
+	@Override
+	protected void paintComponent (Graphics g) {
+		
+		getInsets(insets);
+		int x = insets.left;
+		int y = insets.top + BAR_Y;
+		int played = playedWidth;
+		
+		// only fills the sections within the area being repainted
+		clip.setBounds(x, y, BAR_WIDTH, BAR_HEIGHT);
+		g.getClipBounds(clip);
+		int clipStart = clip.x;
+		int clipEnd = clip.x + clip.width;
+		
+		/* |  WHITE  ||  GRAY  |
+		 * ====================
+		 */
+		
+		// (1) The current played section of the track in white
+		int start = Math.max(x, clipStart);
+		int end = Math.min(x + played, clipEnd);
+		if (end > start) {
+			g.setColor(Color.WHITE);
+			g.fillRect(start, y, end - start, BAR_HEIGHT);
+		}
+		
+		// (2) The section to be played in gray
+		start = Math.max(x + played, clipStart);
+		end = Math.min(x + BAR_WIDTH, clipEnd);
+		if (end > start) {
+			g.setColor(Color.GRAY);
+			g.fillRect(start, y, end - start, BAR_HEIGHT);
+		}
+	}
+}